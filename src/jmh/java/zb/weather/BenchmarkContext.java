@@ -0,0 +1,31 @@
+package zb.weather;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트. MySQL 대신 인메모리 H2 를 사용해 오프라인에서 실행된다.
+ */
+public final class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... additionalProperties) {
+        return new SpringApplicationBuilder(WeatherApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database=h2",
+                        "spring.jpa.show-sql=false",
+                        "openweathermap.key=bench",
+                        "openweathermap.url=http://127.0.0.1:1/weather?appid=",
+                        "openweathermap.history-url=http://127.0.0.1:1/timemachine?appid=",
+                        "openweathermap.location-url=http://127.0.0.1:1/weather?lat={lat}&lon={lon}&appid=",
+                        "logging.level.root=WARN")
+                .properties(additionalProperties)
+                .run();
+    }
+}
@@ -0,0 +1,62 @@
+package zb.weather;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Diary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DiaryController 가 반환하는 List<Diary> 의 JSON 직렬화 비용.
+ * ObjectMapper 는 스프링 부트 기본 설정과 같은 방식으로 만든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiaryJsonBenchmark {
+    @Param({"1000", "10000"})
+    int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private List<Diary> diaries;
+
+    @Setup
+    public void setUp() {
+        diaries = new ArrayList<>(size);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < size; i++) {
+            DateWeather dateWeather = new DateWeather();
+            dateWeather.setDate(start.plusDays(i / 3));
+            dateWeather.setWeather(i % 2 == 0 ? "Clear" : "Rain");
+            dateWeather.setIcon(i % 2 == 0 ? "01d" : "10d");
+            dateWeather.setTemperature(270 + i % 30);
+
+            Diary diary = new Diary();
+            diary.setId(i + 1);
+            diary.setDateWeather(dateWeather);
+            diary.setText("오늘은 날씨가 좋아서 한강에 산책을 다녀왔다. " + i);
+            diaries.add(diary);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeDiaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(diaries);
+    }
+}
@@ -0,0 +1,97 @@
+package zb.weather;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Diary;
+import zb.weather.dto.DiaryDateGroup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * /read/diaries 응답 형식별 직렬화 비용과 크기. 기본 형식(List<Diary>)과 묶음 형식(DiaryDateGroup)을
+ * 각각 그대로, 그리고 gzip 으로 압축해 비교한다. 하루에 일기 3개가 같은 날씨를 공유한다.
+ * 형식별 바이트 수는 @Setup 에서 한 번 로그로 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiaryPayloadBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryPayloadBenchmark.class);
+
+    @Param({"10000"})
+    int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private List<Diary> diaries;
+
+    @Setup
+    public void setUp() throws IOException {
+        diaries = new ArrayList<>(size);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < size; i++) {
+            int day = i / 3;
+            DateWeather dateWeather = new DateWeather();
+            dateWeather.setDate(start.plusDays(day));
+            dateWeather.setWeather(day % 2 == 0 ? "Clear" : "Rain");
+            dateWeather.setIcon(day % 2 == 0 ? "01d" : "10d");
+            dateWeather.setTemperature(270 + day % 30);
+
+            Diary diary = new Diary();
+            diary.setId(i + 1);
+            diary.setDateWeather(dateWeather);
+            diary.setText("오늘은 날씨가 좋아서 한강에 산책을 다녀왔다. " + i);
+            diaries.add(diary);
+        }
+        logger.info("flat={} bytes, flat+gzip={} bytes, grouped={} bytes, grouped+gzip={} bytes",
+                flat().length, flatGzip().length, grouped().length, groupedGzip().length);
+    }
+
+    @Benchmark
+    public byte[] flat() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(diaries);
+    }
+
+    @Benchmark
+    public byte[] flatGzip() throws IOException {
+        return gzip(flat());
+    }
+
+    @Benchmark
+    public byte[] grouped() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(DiaryDateGroup.group(diaries));
+    }
+
+    @Benchmark
+    public byte[] groupedGzip() throws IOException {
+        return gzip(grouped());
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
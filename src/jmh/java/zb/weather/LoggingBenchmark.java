@@ -0,0 +1,79 @@
+package zb.weather;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zb.weather.domain.DateWeather;
+import zb.weather.repository.JdbcDateWeatherRepository;
+import zb.weather.service.DiaryService;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로깅 설정별 일기 생성 지연 시간. sync/async 는 sql 프로필로 SQL 로그까지 켠 상태에서
+ * 동기 appender 와 비동기 appender 를 비교하고, off 는 로그를 모두 끈 기준값이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class LoggingBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2024, 11, 29);
+
+    @Param({"off", "sync", "async"})
+    String logging;
+
+    private ConfigurableApplicationContext context;
+    private DiaryService diaryService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (logging) {
+            case "off":
+                context = BenchmarkContext.start("logging.level.root=OFF");
+                break;
+            case "sync":
+                context = BenchmarkContext.start("logging.level.root=INFO", "spring.profiles.active=sql,sync-logging");
+                break;
+            default:
+                context = BenchmarkContext.start("logging.level.root=INFO", "spring.profiles.active=sql");
+        }
+        diaryService = context.getBean(DiaryService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setDate(DATE);
+        dateWeather.setWeather("Clear");
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(276.81);
+        context.getBean(JdbcDateWeatherRepository.class).saveAllIgnoringExisting(Collections.singletonList(dateWeather));
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeDiaries() {
+        jdbcTemplate.update("delete from diary");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean createDiary() {
+        return diaryService.createDiary(DATE, "오늘은 맑음", null);
+    }
+}
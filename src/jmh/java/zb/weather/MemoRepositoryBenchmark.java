@@ -0,0 +1,78 @@
+package zb.weather;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zb.weather.domain.Memo;
+import zb.weather.repository.JdbcMemoRepository;
+import zb.weather.repository.JpaMemoRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JdbcTemplate 저장소와 Spring Data JPA 저장소의 save / findAll 비교 (H2 인메모리).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemoRepositoryBenchmark {
+    private static final int PRELOADED_ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private JdbcMemoRepository jdbcMemoRepository;
+    private JpaMemoRepository jpaMemoRepository;
+    private JdbcTemplate jdbcTemplate;
+    // JDBC 저장은 id 를 직접 넣으므로 JPA IDENTITY 값과 겹치지 않게 음수 id 를 사용한다.
+    private final AtomicInteger jdbcIds = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        jdbcMemoRepository = context.getBean(JdbcMemoRepository.class);
+        jpaMemoRepository = context.getBean(JpaMemoRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int i = 1; i <= PRELOADED_ROWS; i++) {
+            jdbcMemoRepository.save(new Memo(i, "memo " + i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeSavedRows() {
+        jdbcTemplate.update("delete from memo where id < 0 or id > ?", PRELOADED_ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Memo jdbcSave() {
+        return jdbcMemoRepository.save(new Memo(-jdbcIds.incrementAndGet(), "Today is Thursday"));
+    }
+
+    @Benchmark
+    public Memo jpaSave() {
+        return jpaMemoRepository.save(new Memo(null, "Today is Thursday"));
+    }
+
+    @Benchmark
+    public List<Memo> jdbcFindAll() {
+        return jdbcMemoRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Memo> jpaFindAll() {
+        return jpaMemoRepository.findAll();
+    }
+}
@@ -0,0 +1,113 @@
+package zb.weather;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import zb.weather.domain.DateWeather;
+import zb.weather.service.WeatherResponseParser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * json-simple 트리 파싱(기존 DiaryService.parseWeather) 과 스트리밍 파서 비교.
+ * -prof gc 로 실행하면 호출당 할당량도 함께 볼 수 있다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeatherParseBenchmark {
+    /** 서울 현재 날씨 응답 (약 500 바이트) */
+    static final String CURRENT = "{\"coord\":{\"lon\":126.9778,\"lat\":37.5683},"
+            + "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01n\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":276.81,\"feels_like\":273.52,\"temp_min\":275.84,"
+            + "\"temp_max\":277.81,\"pressure\":1026,\"humidity\":49,\"sea_level\":1026,\"grnd_level\":1020},"
+            + "\"visibility\":10000,\"wind\":{\"speed\":3.6,\"deg\":320},\"clouds\":{\"all\":0},"
+            + "\"dt\":1732880000,\"sys\":{\"type\":1,\"id\":8105,\"country\":\"KR\",\"sunrise\":1732832734,"
+            + "\"sunset\":1732868367},\"timezone\":32400,\"id\":1835848,\"name\":\"Seoul\",\"cod\":200}";
+
+    /** 여러 기상 상태와 부가 정보가 붙은 응답 (약 2 킬로바이트) */
+    static final String VERBOSE = "{\"coord\":{\"lon\":126.9778,\"lat\":37.5683},"
+            + "\"weather\":[{\"id\":501,\"main\":\"Rain\",\"description\":\"moderate rain\",\"icon\":\"10d\"},"
+            + "{\"id\":701,\"main\":\"Mist\",\"description\":\"mist\",\"icon\":\"50d\"},"
+            + "{\"id\":741,\"main\":\"Fog\",\"description\":\"fog\",\"icon\":\"50d\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":281,\"feels_like\":278.95,\"temp_min\":280.15,"
+            + "\"temp_max\":282.04,\"pressure\":1012,\"humidity\":93,\"sea_level\":1012,\"grnd_level\":1006},"
+            + "\"visibility\":3000,\"wind\":{\"speed\":5.14,\"deg\":200,\"gust\":9.26},"
+            + "\"rain\":{\"1h\":2.73,\"3h\":6.1},\"clouds\":{\"all\":100},\"dt\":1732880000,"
+            + "\"sys\":{\"type\":1,\"id\":8105,\"country\":\"KR\",\"sunrise\":1732832734,\"sunset\":1732868367},"
+            + "\"alerts\":[{\"sender_name\":\"KMA\",\"event\":\"Heavy rain advisory\",\"start\":1732870000,"
+            + "\"end\":1732900000,\"description\":\"Heavy rain is expected across the metropolitan area. "
+            + "Residents are advised to avoid low-lying areas and underground spaces, check drainage around "
+            + "their homes and refrain from outdoor activities near rivers and streams until the advisory is "
+            + "lifted.\",\"tags\":[\"Rain\",\"Flood\"]},{\"sender_name\":\"KMA\",\"event\":\"Strong wind "
+            + "advisory\",\"start\":1732870000,\"end\":1732890000,\"description\":\"Strong winds with gusts "
+            + "above 20 m/s are expected along the coast. Secure loose outdoor objects and take care when "
+            + "driving on bridges and elevated roads.\",\"tags\":[\"Wind\"]}],"
+            + "\"timezone\":32400,\"id\":1835848,\"name\":\"Seoul\",\"cod\":200}";
+
+    @Param({"current", "verbose"})
+    String payload;
+
+    private String json;
+    private final WeatherResponseParser streamingParser = new WeatherResponseParser();
+
+    @Setup
+    public void setUp() {
+        json = "current".equals(payload) ? CURRENT : VERBOSE;
+    }
+
+    @Benchmark
+    public DateWeather jsonSimpleTree() {
+        Map<String, Object> parsedWeather = parseWeather(json);
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setWeather(parsedWeather.get("main").toString());
+        dateWeather.setIcon(parsedWeather.get("icon").toString());
+        dateWeather.setTemperature(((Number) parsedWeather.get("temp")).doubleValue());
+        return dateWeather;
+    }
+
+    @Benchmark
+    public DateWeather streaming() {
+        return streamingParser.parse(json);
+    }
+
+    /**
+     * 스트리밍 파서 도입 전 DiaryService.parseWeather 구현.
+     */
+    private static Map<String, Object> parseWeather(String jsonString) {
+        JSONParser jsonParser = new JSONParser();
+        JSONObject jsonObject;
+
+        try {
+            jsonObject = (JSONObject) jsonParser.parse(jsonString);
+        } catch (ParseException e) {
+            throw new RuntimeException("Error parsing weather data", e);
+        }
+
+        Map<String, Object> resultMap = new HashMap<>();
+        JSONObject mainData = (JSONObject) jsonObject.get("main");
+
+        if (mainData != null) {
+            resultMap.put("temp", mainData.get("temp"));
+        }
+
+        JSONArray weatherArray = (JSONArray) jsonObject.get("weather");
+        if (weatherArray != null && !weatherArray.isEmpty()) {
+            JSONObject weatherData = (JSONObject) weatherArray.get(0);
+            resultMap.put("main", weatherData.get("main"));
+            resultMap.put("icon", weatherData.get("icon"));
+        }
+        return resultMap;
+    }
+}
@@ -0,0 +1,99 @@
+package zb.weather.collector;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import zb.weather.BenchmarkContext;
+import zb.weather.domain.Location;
+import zb.weather.dto.WeatherCollectResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 위치 수에 대한 수집 시간이 workers 에 따라 어떻게 줄어드는지 본다.
+ * 응답마다 latency 만큼 늦게 답하는 로컬 스텁 API 를 띄우고, 저장은 인메모리 H2 에 한다.
+ * 호출마다 날짜를 바꾸어 매번 새 행을 저장한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeatherCollectorBenchmark {
+    private static final byte[] PAYLOAD = ("{\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}],"
+            + "\"main\":{\"temp\":280.5}}").getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1000"})
+    public int locations;
+
+    @Param({"1", "8", "32", "128"})
+    public int workers;
+
+    @Param({"10"})
+    public int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ConfigurableApplicationContext context;
+    private WeatherCollector collector;
+    private List<Location> locationList;
+    private LocalDate date = LocalDate.of(2000, 1, 1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/weather", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, PAYLOAD.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PAYLOAD);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(256);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        context = BenchmarkContext.start(
+                "openweathermap.location-url=http://127.0.0.1:" + server.getAddress().getPort()
+                        + "/weather?lat={lat}&lon={lon}&appid=",
+                "weather.http.max-connections=256");
+        collector = context.getBean(WeatherCollector.class);
+        locationList = new ArrayList<>(locations);
+        for (int i = 0; i < locations; i++) {
+            locationList.add(new Location(i + 2, "city-" + i, -90 + i % 180, -180 + i % 360));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public WeatherCollectResult collect() {
+        date = date.plusDays(1);
+        return collector.collect(locationList, date, workers);
+    }
+}
@@ -0,0 +1,111 @@
+package zb.weather.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zb.weather.BenchmarkContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스케줄 작업과 백필이 커넥션을 길게 잡는 동안 요청 처리 조회의 지연(대부분 풀 대기) 비교 (H2 인메모리).
+ * pools=false 는 모든 작업이 web 풀 하나를 같이 쓰던 이전 구성이고, pools=true 는 작업별 풀이다.
+ * 끝날 때 web 풀의 hikaricp.connections.acquire 평균과 최대를 로그로 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class ConnectionPoolBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolBenchmark.class);
+    private static final int WEB_POOL_SIZE = 8;
+    private static final int SCHEDULER_HOLDERS = 6;
+    private static final int BACKFILL_HOLDERS = 4;
+    private static final long HOLD_MILLIS = 20;
+
+    @Param({"false", "true"})
+    public boolean pools;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private final List<Thread> holders = new ArrayList<>();
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "datasource.pools.enabled=" + pools,
+                "datasource.pools.web.maximum-pool-size=" + WEB_POOL_SIZE,
+                "datasource.hold.long-threshold=1m");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        DataSource dataSource = context.getBean(DataSource.class);
+        running = true;
+        for (int i = 0; i < SCHEDULER_HOLDERS + BACKFILL_HOLDERS; i++) {
+            Workload workload = i < SCHEDULER_HOLDERS ? Workload.SCHEDULER : Workload.BACKFILL;
+            Thread thread = new Thread(workload.wrap(() -> hold(dataSource)), "bench-" + workload + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            holders.add(thread);
+        }
+    }
+
+    /**
+     * 배치 저장처럼 커넥션을 HOLD_MILLIS 동안 잡았다 놓기를 반복한다.
+     */
+    private void hold(DataSource dataSource) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("select count(*) from date_weather");
+                Thread.sleep(HOLD_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // 풀 대기 시간 초과는 다음 반복에서 다시 시도한다.
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread holder : holders) {
+            holder.interrupt();
+            holder.join();
+        }
+        Timer acquire = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire")
+                .tag("pool", "web")
+                .timer();
+        if (acquire != null) {
+            logger.info("pools={} web acquire: count={}, mean={}ms, max={}ms", pools, acquire.count(),
+                    String.format(Locale.ROOT, "%.3f", acquire.mean(TimeUnit.MILLISECONDS)),
+                    String.format(Locale.ROOT, "%.3f", acquire.max(TimeUnit.MILLISECONDS)));
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public Integer webQuery() {
+        return jdbcTemplate.queryForObject("select count(*) from diary", Integer.class);
+    }
+}
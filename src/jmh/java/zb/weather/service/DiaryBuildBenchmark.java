@@ -0,0 +1,46 @@
+package zb.weather.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Diary;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 일기 생성 경로의 엔티티 조립 비용 (Diary.setDateWeather, DiaryService.buildDiary).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DiaryBuildBenchmark {
+    private final LocalDate date = LocalDate.of(2024, 11, 29);
+    private DateWeather dateWeather;
+
+    @Setup
+    public void setUp() {
+        dateWeather = new DateWeather();
+        dateWeather.setDate(date);
+        dateWeather.setWeather("Clear");
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(276.81);
+    }
+
+    @Benchmark
+    public Diary setDateWeather() {
+        Diary diary = new Diary();
+        diary.setDateWeather(dateWeather);
+        return diary;
+    }
+
+    @Benchmark
+    public Diary buildDiary() {
+        return DiaryService.buildDiary(date, "오늘은 맑음", dateWeather);
+    }
+}
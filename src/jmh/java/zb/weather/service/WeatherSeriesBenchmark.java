@@ -0,0 +1,51 @@
+package zb.weather.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import zb.weather.domain.DateWeather;
+import zb.weather.dto.WeatherStats;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WeatherSeries 기간 집계 비용. days 일치 날씨를 채운 뒤 전체 기간의 통계를 낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeatherSeriesBenchmark {
+    private static final String[] CONDITIONS = {"Clear", "Clouds", "Rain", "Snow", "Mist"};
+    private final LocalDate start = LocalDate.of(2000, 1, 1);
+
+    @Param({"365", "3650"})
+    public int days;
+
+    private WeatherSeries series;
+    private LocalDate end;
+
+    @Setup
+    public void setUp() {
+        series = new WeatherSeries(null, 50);
+        for (int i = 0; i < days; i++) {
+            DateWeather dateWeather = new DateWeather();
+            dateWeather.setDate(start.plusDays(i));
+            dateWeather.setWeather(CONDITIONS[i % CONDITIONS.length]);
+            dateWeather.setIcon("01d");
+            dateWeather.setTemperature(260 + i % 40);
+            series.put(dateWeather);
+        }
+        end = start.plusDays(days - 1);
+    }
+
+    @Benchmark
+    public WeatherStats stats() {
+        return series.stats(start, end);
+    }
+}
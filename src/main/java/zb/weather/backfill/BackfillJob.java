@@ -0,0 +1,65 @@
+package zb.weather.backfill;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 백필 작업 진행 상황. 조회 시점의 처리 속도로 남은 시간을 추정한다.
+ */
+@Getter
+public class BackfillJob {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final long id;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int missing;
+    private volatile Status status = Status.RUNNING;
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger saved = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    private final long startedNanos = System.nanoTime();
+    @Getter(AccessLevel.NONE)
+    private volatile long finishedNanos;
+
+    public BackfillJob(long id, LocalDate startDate, LocalDate endDate, int missing) {
+        this.id = id;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.missing = missing;
+    }
+
+    public int getProcessed() {
+        return fetched.get() + failed.get();
+    }
+
+    public long getElapsedMillis() {
+        long end = finishedNanos == 0 ? System.nanoTime() : finishedNanos;
+        return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+    }
+
+    /**
+     * 남은 예상 시간(ms). 아직 처리한 날짜가 없으면 -1.
+     */
+    public long getEtaMillis() {
+        int processed = getProcessed();
+        if (status != Status.RUNNING) {
+            return 0;
+        }
+        if (processed == 0) {
+            return -1;
+        }
+        return getElapsedMillis() * (missing - processed) / processed;
+    }
+
+    void finish(Status status) {
+        this.finishedNanos = System.nanoTime();
+        this.status = status;
+    }
+}
@@ -0,0 +1,39 @@
+package zb.weather.backfill;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 외부 API 호출량을 제한하는 토큰 버킷.
+ * 토큰이 없으면 다음 토큰을 예약하고 그 시점까지 기다리므로 여러 스레드가 공유해도 평균 속도가 rate 를 넘지 않는다.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double nanosPerToken;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.capacity = burst;
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+        lastRefill = now;
+    }
+}
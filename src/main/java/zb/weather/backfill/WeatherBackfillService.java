@@ -0,0 +1,191 @@
+package zb.weather.backfill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import zb.weather.cluster.CacheInvalidation;
+import zb.weather.datasource.Workload;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Location;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.repository.JdbcDateWeatherRepository;
+import zb.weather.service.DateWeatherCache;
+import zb.weather.service.WeatherApiClient;
+import zb.weather.service.WeatherResponseParser;
+import zb.weather.service.WeatherSeries;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 기본 위치의 date_weather 에 빠진 날짜를 찾아 과거 날씨를 채운다.
+ * 조회는 parallelism 개의 스레드가 공유 토큰 버킷으로 속도를 맞추어 수행하고, 저장은 batch-size 단위 JDBC 배치로 한다.
+ */
+@Service
+public class WeatherBackfillService implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherBackfillService.class);
+
+    private final DateWeatherRepository dateWeatherRepository;
+    private final JdbcDateWeatherRepository jdbcDateWeatherRepository;
+    private final WeatherApiClient weatherApiClient;
+    private final WeatherResponseParser weatherResponseParser;
+    private final DateWeatherCache dateWeatherCache;
+    private final WeatherSeries weatherSeries;
+    private final CacheInvalidation cacheInvalidation;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final int batchSize;
+    private final TokenBucket tokenBucket;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+            r -> new Thread(Workload.BACKFILL.wrap(r), "weather-backfill"));
+    private final Map<Long, BackfillJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobIds = new AtomicLong();
+
+    public WeatherBackfillService(DateWeatherRepository dateWeatherRepository,
+                                  JdbcDateWeatherRepository jdbcDateWeatherRepository,
+                                  WeatherApiClient weatherApiClient,
+                                  WeatherResponseParser weatherResponseParser,
+                                  DateWeatherCache dateWeatherCache,
+                                  WeatherSeries weatherSeries,
+                                  CacheInvalidation cacheInvalidation,
+                                  @Value("${weather.backfill.parallelism:4}") int parallelism,
+                                  @Value("${weather.backfill.rate-per-minute:60}") int ratePerMinute,
+                                  @Value("${weather.backfill.burst:10}") int burst,
+                                  @Value("${weather.backfill.max-attempts:3}") int maxAttempts,
+                                  @Value("${weather.backfill.initial-backoff:500ms}") Duration initialBackoff,
+                                  @Value("${weather.backfill.batch-size:100}") int batchSize) {
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.jdbcDateWeatherRepository = jdbcDateWeatherRepository;
+        this.weatherApiClient = weatherApiClient;
+        this.weatherResponseParser = weatherResponseParser;
+        this.dateWeatherCache = dateWeatherCache;
+        this.weatherSeries = weatherSeries;
+        this.cacheInvalidation = cacheInvalidation;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.batchSize = batchSize;
+        this.tokenBucket = new TokenBucket(ratePerMinute / 60.0, burst);
+    }
+
+    /**
+     * 기간 내 빠진 날짜를 찾아 백그라운드에서 채우기 시작하고 진행 상황 객체를 바로 반환한다.
+     * 작업은 하나씩 순서대로 실행된다.
+     */
+    public BackfillJob start(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> missingDates = findMissingDates(startDate, endDate);
+        BackfillJob job = new BackfillJob(jobIds.incrementAndGet(), startDate, endDate, missingDates.size());
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> run(job, missingDates));
+        logger.info("started weather backfill {}: {} missing dates between {} and {}",
+                job.getId(), missingDates.size(), startDate, endDate);
+        return job;
+    }
+
+    public BackfillJob getJob(long id) {
+        return jobs.get(id);
+    }
+
+    List<LocalDate> findMissingDates(LocalDate startDate, LocalDate endDate) {
+        Set<LocalDate> existing = new HashSet<>(dateWeatherRepository.findDatesBetween(Location.DEFAULT_ID, startDate, endDate));
+        List<LocalDate> missing = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate date = startDate; !date.isAfter(endDate) && date.isBefore(today); date = date.plusDays(1)) {
+            if (!existing.contains(date)) {
+                missing.add(date);
+            }
+        }
+        return missing;
+    }
+
+    private void run(BackfillJob job, List<LocalDate> missingDates) {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            CompletionService<DateWeather> completionService = new ExecutorCompletionService<>(workers);
+            for (LocalDate date : missingDates) {
+                completionService.submit(() -> fetchWithRetry(job, date));
+            }
+            List<DateWeather> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < missingDates.size(); i++) {
+                DateWeather dateWeather = completionService.take().get();
+                if (dateWeather == null) {
+                    job.getFailed().incrementAndGet();
+                    continue;
+                }
+                job.getFetched().incrementAndGet();
+                batch.add(dateWeather);
+                if (batch.size() == batchSize) {
+                    save(job, batch);
+                }
+            }
+            save(job, batch);
+            job.finish(BackfillJob.Status.COMPLETED);
+            logger.info("finished weather backfill {}: saved={}, failed={}, {}ms",
+                    job.getId(), job.getSaved(), job.getFailed(), job.getElapsedMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(BackfillJob.Status.FAILED);
+        } catch (Exception e) {
+            logger.error("failed weather backfill {}: ", job.getId(), e);
+            job.finish(BackfillJob.Status.FAILED);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private DateWeather fetchWithRetry(BackfillJob job, LocalDate date) throws InterruptedException {
+        long backoffMillis = initialBackoff.toMillis();
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            tokenBucket.acquire();
+            DateWeather dateWeather = weatherResponseParser.parseHistorical(weatherApiClient.getHistoricalWeatherData(date));
+            if (dateWeather != null) {
+                dateWeather.setDate(date);
+                return dateWeather;
+            }
+            if (attempt < maxAttempts) {
+                job.getRetries().incrementAndGet();
+                Thread.sleep(backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1));
+                backoffMillis *= 2;
+            }
+        }
+        logger.error("failed to fetch weather for {} after {} attempts", date, maxAttempts);
+        return null;
+    }
+
+    private void save(BackfillJob job, List<DateWeather> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int saved = 0;
+        for (int count : jdbcDateWeatherRepository.saveAllIgnoringExisting(batch)) {
+            if (count != 0) {
+                saved++;
+            }
+        }
+        batch.forEach(dateWeatherCache::put);
+        batch.forEach(weatherSeries::put);
+        batch.forEach(dateWeather -> cacheInvalidation.publishWeather(dateWeather.getDate()));
+        job.getSaved().addAndGet(saved);
+        batch.clear();
+    }
+
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,246 @@
+package zb.weather.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import zb.weather.datasource.Workload;
+import zb.weather.domain.Location;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.repository.DiaryRepository;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.service.DateWeatherCache;
+import zb.weather.service.DiaryVersions;
+import zb.weather.service.WeatherSeries;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 노드 사이 메모리 캐시 무효화. 이 노드가 일기나 날씨를 바꾸면 cache_change 에 (종류, 날짜) 를 남기고,
+ * 모든 노드가 poll-interval 마다 새 행을 읽어 다른 노드가 남긴 변경을 자기 캐시에 반영한다.
+ * 일기 변경이면 날짜 버전을 올려 ETag 와 직렬화 캐시를 무효화하고 검색 색인을 DB 에서 다시 읽는다.
+ * 날씨 변경이면 날씨 캐시에서 지우고 기간 통계용 열 배열을 DB 값으로 고친다.
+ *
+ * 자동 증가 id 는 커밋 순서와 다를 수 있으므로, 건너뛴 id 는 gap-timeout 동안 기억해 두었다가 늦게 커밋되면 반영한다.
+ *
+ * 알릴 변경은 (종류, 날짜) 로 합쳐 최대 MAX_PENDING 개까지 모아 두고 폴링 스레드가 한 번의 배치 INSERT 로 기록한다.
+ * 한 노드로만 띄우면 필요 없으므로 cluster.invalidation.enabled=true 일 때만 켠다.
+ */
+@Component
+public class CacheInvalidation implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidation.class);
+    private static final String DIARY = "diary";
+    private static final String WEATHER = "weather";
+    private static final int POLL_LIMIT = 1000;
+    private static final int MAX_GAPS = 10_000;
+    private static final long GAP_TIMEOUT_MILLIS = 10_000;
+    private static final int MAX_PENDING = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String node;
+    private final DiaryVersions diaryVersions;
+    private final DiarySearchIndex diarySearchIndex;
+    private final DiaryRepository diaryRepository;
+    private final DateWeatherCache dateWeatherCache;
+    private final WeatherSeries weatherSeries;
+    private final DateWeatherRepository dateWeatherRepository;
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final Duration retention;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(Workload.SCHEDULER.wrap(r), "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 읽은 가장 큰 id 와, 그보다 작지만 아직 보지 못한 id(처음 건너뛴 시각)
+    private long lastId = -1;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastCleanup;
+    // 아직 기록하지 않은 변경. 키는 "종류:날짜", 값은 INSERT 파라미터
+    private final Map<String, Object[]> pending = new LinkedHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private Counter published;
+    private Counter received;
+    private Counter dropped;
+
+    public CacheInvalidation(DataSource dataSource, ClusterNode clusterNode, DiaryVersions diaryVersions,
+                             DiarySearchIndex diarySearchIndex, DiaryRepository diaryRepository,
+                             DateWeatherCache dateWeatherCache, WeatherSeries weatherSeries,
+                             DateWeatherRepository dateWeatherRepository,
+                             @Value("${cluster.invalidation.enabled:false}") boolean enabled,
+                             @Value("${cluster.invalidation.poll-interval:1s}") Duration pollInterval,
+                             @Value("${cluster.invalidation.retention:1h}") Duration retention) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.node = clusterNode.getId();
+        this.diaryVersions = diaryVersions;
+        this.diarySearchIndex = diarySearchIndex;
+        this.diaryRepository = diaryRepository;
+        this.dateWeatherCache = dateWeatherCache;
+        this.weatherSeries = weatherSeries;
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.enabled = enabled;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.retention = retention;
+        if (enabled) {
+            diaryVersions.addListener(date -> publish(DIARY, date));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // 기동 전의 변경은 이미 DB 에서 새로 읽은 캐시에 들어 있으므로 지금 끝 id 부터 읽는다.
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from cache_change", Long.class);
+        synchronized (this) {
+            lastId = maxId == null ? 0 : maxId;
+        }
+        poller.scheduleWithFixedDelay(this::pollSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 기본 위치의 date 날씨를 바꿨다고 다른 노드에 알린다.
+     */
+    public void publishWeather(LocalDate date) {
+        publish(WEATHER, date);
+    }
+
+    /**
+     * 커밋 후 콜백에서 불려도 끝난 트랜잭션의 연결에 섞이지 않도록 폴링 스레드에서 따로 기록한다.
+     * 기록 전에 같은 (종류, 날짜) 가 다시 오면 하나로 합치고, 대기 중인 변경이 MAX_PENDING 개면 버리고 센다.
+     */
+    private void publish(String kind, LocalDate date) {
+        if (!enabled || poller.isShutdown()) {
+            return;
+        }
+        Object[] row = {node, kind, Date.valueOf(date), new Timestamp(System.currentTimeMillis())};
+        synchronized (pending) {
+            String key = kind + ":" + date;
+            if (pending.size() >= MAX_PENDING && !pending.containsKey(key)) {
+                if (dropped != null) {
+                    dropped.increment();
+                }
+                logger.warn("dropped {} change for {}: {} changes are waiting to be published", kind, date, MAX_PENDING);
+                return;
+            }
+            pending.putIfAbsent(key, row);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            poller.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Object[]> rows;
+        synchronized (pending) {
+            rows = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("insert into cache_change(node, kind, date, created_at) values(?,?,?,?)", rows);
+            if (published != null) {
+                published.increment(rows.size());
+            }
+        } catch (DataAccessException e) {
+            logger.warn("failed to publish {} changes: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            logger.warn("failed to poll cache changes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 새로 커밋된 변경을 읽어 반영한다. 시작 전이면 아무것도 하지 않는다.
+     */
+    public synchronized void poll() {
+        if (lastId < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(firstSeen -> now - firstSeen > GAP_TIMEOUT_MILLIS);
+        long from = gaps.isEmpty() ? lastId : Math.min(lastId, gaps.firstKey() - 1);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select id, node, kind, date from cache_change where id > ? order by id limit " + POLL_LIMIT, from);
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            if (id > lastId) {
+                for (long missing = lastId + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                lastId = id;
+            } else if (gaps.remove(id) == null) {
+                continue;
+            }
+            if (!node.equals(row.get("node"))) {
+                apply((String) row.get("kind"), ((Date) row.get("date")).toLocalDate());
+            }
+        }
+        if (now - lastCleanup > retention.toMillis() / 10) {
+            lastCleanup = now;
+            jdbcTemplate.update("delete from cache_change where created_at < ?",
+                    new Timestamp(now - retention.toMillis()));
+        }
+    }
+
+    private void apply(String kind, LocalDate date) {
+        if (DIARY.equals(kind)) {
+            diaryVersions.bump(date);
+            diarySearchIndex.replaceDate(date, diaryRepository.findAllByDate(date));
+        } else if (WEATHER.equals(kind)) {
+            dateWeatherCache.evict(date);
+            dateWeatherRepository.findByLocationIdAndDate(Location.DEFAULT_ID, date).ifPresent(weatherSeries::put);
+        }
+        if (received != null) {
+            received.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        published = Counter.builder("cluster.invalidation.published")
+                .description("다른 노드에 알린 변경 수")
+                .register(registry);
+        received = Counter.builder("cluster.invalidation.received")
+                .description("다른 노드에서 받아 캐시에 반영한 변경 수")
+                .register(registry);
+        dropped = Counter.builder("cluster.invalidation.dropped")
+                .description("알릴 변경이 너무 많이 밀려 기록하지 못하고 버린 수")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package zb.weather.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * 이 인스턴스의 이름. 예약 작업 잠금의 소유자와 캐시 무효화 행의 발신자로 쓴다.
+ * cluster.node-id 가 없으면 호스트 이름에 임의 접미사를 붙여, 한 JVM 의 여러 컨텍스트도 서로 구분된다.
+ */
+@Component
+public class ClusterNode {
+    private final String id;
+
+    public ClusterNode(@Value("${cluster.node-id:}") String id) {
+        this.id = id.isEmpty() ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8) : id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package zb.weather.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * scheduler_lock 테이블로 예약 작업을 여러 노드 중 한 곳에서만 실행한다.
+ * 잠금은 lock_until 까지 유효하고, 그 시각이 지난 행만 다른 노드가 UPDATE 로 가져갈 수 있다.
+ * 행이 없으면 INSERT 로 만들며 기본 키 충돌이면 다른 노드가 먼저 가져간 것이다.
+ * 실행 중 노드가 죽어도 lock-at-most-for 가 지나면 풀리고, 끝난 뒤에도 lock-at-least-for 동안은 잡아 두어
+ * 시계가 조금 어긋난 다른 노드가 같은 예약을 곧바로 다시 실행하지 않게 한다.
+ */
+@Component
+public class SchedulerLock {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLock.class);
+
+    private static final String UPDATE_SQL =
+            "update scheduler_lock set lock_until = ?, locked_at = ?, locked_by = ? where name = ? and lock_until <= ?";
+    private static final String INSERT_SQL =
+            "insert into scheduler_lock(name, lock_until, locked_at, locked_by) values(?,?,?,?)";
+    private static final String UNLOCK_SQL =
+            "update scheduler_lock set lock_until = ? where name = ? and locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String node;
+
+    public SchedulerLock(DataSource dataSource, ClusterNode clusterNode) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.node = clusterNode.getId();
+    }
+
+    /**
+     * 잠금을 얻으면 task 를 실행해 결과를 반환하고, 다른 노드가 잡고 있으면 실행하지 않고 null 을 반환한다.
+     */
+    public <T> T runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Supplier<T> task) {
+        long lockedAt = System.currentTimeMillis();
+        if (!tryLock(name, lockedAt, lockAtMostFor)) {
+            logger.info("skipped {}: locked by another node", name);
+            return null;
+        }
+        try {
+            return task.get();
+        } finally {
+            unlock(name, lockedAt, lockAtLeastFor);
+        }
+    }
+
+    public boolean tryLock(String name, long lockedAt, Duration lockAtMostFor) {
+        Timestamp now = new Timestamp(lockedAt);
+        Timestamp until = new Timestamp(lockedAt + lockAtMostFor.toMillis());
+        if (jdbcTemplate.update(UPDATE_SQL, until, now, node, name, now) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_SQL, name, until, now, node) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void unlock(String name, long lockedAt, Duration lockAtLeastFor) {
+        long until = Math.max(System.currentTimeMillis(), lockedAt + lockAtLeastFor.toMillis());
+        jdbcTemplate.update(UNLOCK_SQL, new Timestamp(until), name, node);
+    }
+}
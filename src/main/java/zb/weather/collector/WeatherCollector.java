@@ -0,0 +1,240 @@
+package zb.weather.collector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import zb.weather.backfill.TokenBucket;
+import zb.weather.cluster.CacheInvalidation;
+import zb.weather.cluster.SchedulerLock;
+import zb.weather.datasource.Workload;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Location;
+import zb.weather.dto.WeatherCollectResult;
+import zb.weather.repository.JdbcDateWeatherRepository;
+import zb.weather.repository.LocationRepository;
+import zb.weather.service.DateWeatherCache;
+import zb.weather.service.WeatherApiClient;
+import zb.weather.service.WeatherCircuitBreaker;
+import zb.weather.service.WeatherResponseParser;
+import zb.weather.service.WeatherSeries;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 매일 밤 위치별 현재 날씨를 모아 date_weather 에 저장한다.
+ * 위치는 id 로 shard-count 개 조각으로 나누어 인스턴스마다 shard-index 조각만 맡는다.
+ * 조각 안에서는 workers 개의 스레드가 다음 위치를 하나씩 가져가 조회하고, 결과는 크기가 정해진 대기열을 거쳐
+ * 수집을 시작한 스레드가 batch-size 단위 JDBC 배치로 저장한다. 저장이 밀리면 대기열이 차서 조회도 같이 늦춘다.
+ * 같은 조각을 맡은 노드가 여럿이면 scheduler_lock 으로 한 노드만 예약 수집을 실행한다.
+ * API 호출은 rate-per-minute 토큰 버킷으로 제한하고, 일기 생성과 나눠 쓰지 않는 별도 서킷 브레이커를 거친다.
+ */
+@Service
+public class WeatherCollector implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherCollector.class);
+
+    private final LocationRepository locationRepository;
+    private final WeatherApiClient weatherApiClient;
+    private final WeatherResponseParser weatherResponseParser;
+    private final JdbcDateWeatherRepository jdbcDateWeatherRepository;
+    private final DateWeatherCache dateWeatherCache;
+    private final WeatherSeries weatherSeries;
+    private final SchedulerLock schedulerLock;
+    private final CacheInvalidation cacheInvalidation;
+    private final int workers;
+    private final int batchSize;
+    private final int shardCount;
+    private final int shardIndex;
+    private final Duration lockAtMostFor;
+    private final Duration lockAtLeastFor;
+    private final TokenBucket tokenBucket;
+    private final WeatherCircuitBreaker circuitBreaker;
+    private Timer duration;
+    private Counter fetchedCounter;
+    private Counter failedCounter;
+
+    public WeatherCollector(LocationRepository locationRepository,
+                            WeatherApiClient weatherApiClient,
+                            WeatherResponseParser weatherResponseParser,
+                            JdbcDateWeatherRepository jdbcDateWeatherRepository,
+                            DateWeatherCache dateWeatherCache,
+                            WeatherSeries weatherSeries,
+                            SchedulerLock schedulerLock,
+                            CacheInvalidation cacheInvalidation,
+                            @Value("${weather.collector.workers:32}") int workers,
+                            @Value("${weather.collector.batch-size:500}") int batchSize,
+                            @Value("${weather.collector.shard-count:1}") int shardCount,
+                            @Value("${weather.collector.shard-index:0}") int shardIndex,
+                            @Value("${weather.collector.lock-at-most-for:2h}") Duration lockAtMostFor,
+                            @Value("${weather.collector.lock-at-least-for:1m}") Duration lockAtLeastFor,
+                            @Value("${weather.collector.rate-per-minute:600}") int ratePerMinute,
+                            @Value("${weather.collector.burst:32}") int burst,
+                            @Value("${weather.circuit.failure-threshold:5}") int failureThreshold,
+                            @Value("${weather.circuit.open-duration:30s}") Duration openDuration) {
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("weather.collector.shard-index must be in [0, shard-count)");
+        }
+        this.locationRepository = locationRepository;
+        this.weatherApiClient = weatherApiClient;
+        this.weatherResponseParser = weatherResponseParser;
+        this.jdbcDateWeatherRepository = jdbcDateWeatherRepository;
+        this.dateWeatherCache = dateWeatherCache;
+        this.weatherSeries = weatherSeries;
+        this.schedulerLock = schedulerLock;
+        this.cacheInvalidation = cacheInvalidation;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.shardCount = shardCount;
+        this.shardIndex = shardIndex;
+        this.lockAtMostFor = lockAtMostFor;
+        this.lockAtLeastFor = lockAtLeastFor;
+        this.tokenBucket = new TokenBucket(ratePerMinute / 60.0, burst);
+        this.circuitBreaker = new WeatherCircuitBreaker(failureThreshold, openDuration);
+    }
+
+    @Scheduled(cron = "${weather.collector.cron:0 0 1 * * *}")
+    public WeatherCollectResult collectToday() {
+        try (Workload.Scope ignored = Workload.enter(Workload.SCHEDULER)) {
+            return schedulerLock.runLocked("weather-collector-" + shardIndex, lockAtMostFor, lockAtLeastFor,
+                    () -> collect(locationRepository.findShard(shardCount, shardIndex), LocalDate.now(), workers));
+        }
+    }
+
+    /**
+     * locations 의 현재 날씨를 workers 개 스레드로 모아 date 의 날씨로 저장한다.
+     */
+    public WeatherCollectResult collect(List<Location> locations, LocalDate date, int workers) {
+        long start = System.nanoTime();
+        int threads = Math.max(1, Math.min(workers, locations.size()));
+        BlockingQueue<DateWeather> fetched = new ArrayBlockingQueue<>(batchSize * 2);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger fetchedCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+                r -> new Thread(r, "weather-collect-" + threadIds.incrementAndGet()));
+        int saved = 0;
+        try {
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> {
+                    try {
+                        int i;
+                        while ((i = next.getAndIncrement()) < locations.size()) {
+                            DateWeather dateWeather = fetch(locations.get(i), date);
+                            if (dateWeather == null) {
+                                failedCount.incrementAndGet();
+                            } else {
+                                fetchedCount.incrementAndGet();
+                                fetched.put(dateWeather);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            List<DateWeather> batch = new ArrayList<>(batchSize);
+            while (done.getCount() > 0 || !fetched.isEmpty()) {
+                DateWeather dateWeather = fetched.poll(100, TimeUnit.MILLISECONDS);
+                if (dateWeather == null) {
+                    continue;
+                }
+                batch.add(dateWeather);
+                fetched.drainTo(batch, batchSize - batch.size());
+                if (batch.size() >= batchSize) {
+                    saved += save(batch);
+                }
+            }
+            saved += save(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        WeatherCollectResult result = new WeatherCollectResult(date, locations.size(), threads,
+                fetchedCount.get(), failedCount.get(), saved, System.nanoTime() - start);
+        if (duration != null) {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fetchedCounter.increment(result.getFetched());
+            failedCounter.increment(result.getFailed());
+        }
+        logger.info("collected weather for {}: {} locations, fetched={}, failed={}, saved={}, {} workers, {}ms",
+                date, result.getLocations(), result.getFetched(), result.getFailed(), result.getSaved(),
+                threads, result.getElapsedMillis());
+        return result;
+    }
+
+    private DateWeather fetch(Location location, LocalDate date) throws InterruptedException {
+        tokenBucket.acquire();
+        try {
+            DateWeather dateWeather = weatherResponseParser.parse(
+                    weatherApiClient.getWeatherData(location.getLat(), location.getLon(), circuitBreaker));
+            if (dateWeather != null) {
+                dateWeather.setLocationId(location.getId());
+                dateWeather.setDate(date);
+            }
+            return dateWeather;
+        } catch (RuntimeException e) {
+            logger.warn("failed to collect weather for location {}: {}", location.getId(), e.toString());
+            return null;
+        }
+    }
+
+    private int save(List<DateWeather> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int saved = 0;
+        for (int count : jdbcDateWeatherRepository.saveAllIgnoringExisting(batch)) {
+            if (count != 0) {
+                saved++;
+            }
+        }
+        for (DateWeather dateWeather : batch) {
+            if (dateWeather.getLocationId() == Location.DEFAULT_ID) {
+                dateWeatherCache.put(dateWeather);
+                weatherSeries.put(dateWeather);
+                cacheInvalidation.publishWeather(dateWeather.getDate());
+            }
+        }
+        batch.clear();
+        return saved;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        duration = Timer.builder("weather.collector.duration")
+                .description("위치별 날씨 수집 한 번에 걸린 시간")
+                .register(registry);
+        fetchedCounter = Counter.builder("weather.collector.locations")
+                .tag("result", "fetched")
+                .register(registry);
+        failedCounter = Counter.builder("weather.collector.locations")
+                .tag("result", "failed")
+                .register(registry);
+        Gauge.builder("weather.collector.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0: closed, 1: open, 2: half-open")
+                .register(registry);
+    }
+}
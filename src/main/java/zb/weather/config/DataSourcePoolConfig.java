@@ -0,0 +1,63 @@
+package zb.weather.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import zb.weather.datasource.ConnectionHoldTracker;
+import zb.weather.datasource.ReplicaRoutingDataSource;
+import zb.weather.datasource.Workload;
+import zb.weather.datasource.WorkloadRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 애플리케이션이 쓰는 DataSource 를 조립한다.
+ * ConnectionHoldTracker -> WorkloadRoutingDataSource -> 작업별 Hikari 풀 순서로 감싸고, 요청 처리 풀 자리에는
+ * 복제본 설정이 있으면 ReplicaRoutingDataSource 를 둔다. 복제본 라우팅은 트랜잭션의 readOnly 표시를 보고
+ * 고르므로 그때만 LazyConnectionDataSourceProxy 로 한 번 더 감싼다.
+ *
+ * datasource.pools.enabled=false 면 스케줄러와 백필도 요청 처리 풀을 같이 쓴다.
+ */
+@Configuration
+public class DataSourcePoolConfig {
+
+    @Bean
+    public WorkloadRoutingDataSource workloadRoutingDataSource(
+            DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            @Value("${datasource.pools.enabled:true}") boolean poolsEnabled
+    ) {
+        DataSource web = replicaRoutingDataSource.getIfAvailable();
+        if (web == null) {
+            web = HikariPools.web(properties, environment, meterRegistry, "web", properties.determineUrl());
+        }
+        Map<Workload, DataSource> pools = new EnumMap<>(Workload.class);
+        if (poolsEnabled) {
+            pools.put(Workload.SCHEDULER, HikariPools.create(properties, environment, meterRegistry,
+                    "scheduler", properties.determineUrl(), "scheduler"));
+            pools.put(Workload.BACKFILL, HikariPools.create(properties, environment, meterRegistry,
+                    "backfill", properties.determineUrl(), "backfill"));
+        }
+        return new WorkloadRoutingDataSource(web, pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(WorkloadRoutingDataSource workloadRoutingDataSource,
+                                 ConnectionHoldTracker connectionHoldTracker,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        DataSource dataSource = connectionHoldTracker.track(workloadRoutingDataSource);
+        if (replicaRoutingDataSource.getIfAvailable() != null) {
+            return new LazyConnectionDataSourceProxy(dataSource);
+        }
+        return dataSource;
+    }
+}
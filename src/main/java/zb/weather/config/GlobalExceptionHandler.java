@@ -1,24 +1,53 @@
 package zb.weather.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import zb.weather.error.InvalidCursor;
 import zb.weather.error.InvalidDate;
+import zb.weather.error.InvalidDiaryText;
+
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
-    public Exception handleAllException() {
-        System.out.println("error from GlobalExceptionHandler");
+    public Exception handleAllException(Exception e) {
+        logger.error("error from GlobalExceptionHandler", e);
         return new Exception();
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST) //
     @ExceptionHandler(InvalidDate.class)
     public String handleInvalidDate(InvalidDate e) {
-        System.out.println("Invalid date exception: " + e.getMessage());
+        logger.warn("Invalid date exception: {}", e.getMessage());
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursor.class)
+    public String handleInvalidCursor(InvalidCursor e) {
+        logger.warn("Invalid cursor exception: {}", e.getMessage());
         return e.getMessage();
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidDiaryText.class)
+    public String handleInvalidDiaryText(InvalidDiaryText e) {
+        logger.warn("Invalid diary text exception: {}", e.getMessage());
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(RejectedExecutionException.class)
+    public String handleRejectedExecution(RejectedExecutionException e) {
+        logger.warn("Diary executor is saturated: {}", e.getMessage());
+        return "Server is busy";
+    }
 }
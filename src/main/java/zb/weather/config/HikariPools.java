@@ -0,0 +1,51 @@
+package zb.weather.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+/**
+ * 모든 풀은 spring.datasource.* 의 계정과 드라이버, spring.datasource.hikari.* 의 공통 설정을 쓰고,
+ * datasource.pools.{web,scheduler,backfill}.* 에 적은 Hikari 설정(maximum-pool-size, minimum-idle,
+ * connection-timeout 등)으로 풀마다 덮어쓴다.
+ */
+final class HikariPools {
+    static final String PREFIX = "datasource.pools.";
+
+    private HikariPools() {
+    }
+
+    static HikariDataSource create(DataSourceProperties properties, Environment environment,
+                                   MeterRegistry meterRegistry, String poolName, String url, String workload) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        if (workload != null) {
+            binder.bind(PREFIX + workload, Bindable.ofInstance(dataSource));
+        }
+        dataSource.setPoolName(poolName);
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+
+    /**
+     * 요청 처리 풀. 크기를 어디에도 정하지 않았으면 (코어 수 * 2 + 1) 로 둔다. 요청 스레드는 수백 개까지
+     * 늘지만 그보다 많은 커넥션을 열어도 DB 안에서 CPU 와 디스크를 두고 줄을 설 뿐이다.
+     */
+    static HikariDataSource web(DataSourceProperties properties, Environment environment,
+                                MeterRegistry meterRegistry, String poolName, String url) {
+        HikariDataSource dataSource = create(properties, environment, meterRegistry, poolName, url, "web");
+        Binder binder = Binder.get(environment);
+        if (!binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class).isBound()
+                && !binder.bind(PREFIX + "web.maximum-pool-size", Integer.class).isBound()) {
+            dataSource.setMaximumPoolSize(Runtime.getRuntime().availableProcessors() * 2 + 1);
+        }
+        return dataSource;
+    }
+}
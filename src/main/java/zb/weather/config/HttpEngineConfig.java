@@ -0,0 +1,35 @@
+package zb.weather.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zb.weather.http.HttpEngine;
+import zb.weather.http.HttpEngineSettings;
+import zb.weather.http.PooledHttpEngine;
+import zb.weather.http.UrlConnectionHttpEngine;
+
+import java.time.Duration;
+
+@Configuration
+public class HttpEngineConfig {
+    @Bean(destroyMethod = "close")
+    public HttpEngine weatherHttpEngine(
+            @Value("${weather.http.engine:pooled}") String engine,
+            @Value("${weather.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${weather.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${weather.http.total-timeout:5s}") Duration totalTimeout,
+            @Value("${weather.http.max-connections:50}") int maxConnections,
+            @Value("${weather.http.keep-alive:30s}") Duration keepAlive
+    ) {
+        HttpEngineSettings settings = new HttpEngineSettings(
+                connectTimeout, readTimeout, totalTimeout, maxConnections, keepAlive);
+        switch (engine) {
+            case "pooled":
+                return new PooledHttpEngine(settings);
+            case "jdk":
+                return new UrlConnectionHttpEngine(settings);
+            default:
+                throw new IllegalArgumentException("Unknown weather.http.engine: " + engine);
+        }
+    }
+}
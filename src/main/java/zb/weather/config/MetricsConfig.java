@@ -0,0 +1,40 @@
+package zb.weather.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zb.weather.http.HttpEngine;
+import zb.weather.http.PooledHttpEngine;
+
+@Configuration
+public class MetricsConfig {
+    /**
+     * 서비스와 JDBC 저장소 메서드의 @Timed 를 처리한다.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder weatherHttpEngineMetrics(HttpEngine weatherHttpEngine) {
+        return registry -> {
+            if (!(weatherHttpEngine instanceof PooledHttpEngine)) {
+                return;
+            }
+            PooledHttpEngine engine = (PooledHttpEngine) weatherHttpEngine;
+            Gauge.builder("weather.http.pool.leased", engine, e -> e.getPoolStats().getLeased())
+                    .description("사용 중인 외부 API 커넥션 수")
+                    .register(registry);
+            Gauge.builder("weather.http.pool.available", engine, e -> e.getPoolStats().getAvailable())
+                    .description("재사용 대기 중인 외부 API 커넥션 수")
+                    .register(registry);
+            Gauge.builder("weather.http.pool.pending", engine, e -> e.getPoolStats().getPending())
+                    .description("커넥션을 기다리는 요청 수")
+                    .register(registry);
+        };
+    }
+}
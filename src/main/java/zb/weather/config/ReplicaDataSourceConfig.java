@@ -0,0 +1,48 @@
+package zb.weather.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import zb.weather.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * datasource.replica.urls 가 있을 때만 켜진다. 복제본은 프라이머리와 같은 계정, 드라이버,
+ * spring.datasource.hikari.* 설정을 쓰고 연결 대기 시간만 connection-timeout 으로 짧게 둔다.
+ * 프라이머리 풀은 요청 처리 풀(datasource.pools.web.*)이며, DataSourcePoolConfig 가 이 라우팅을 요청 처리 자리에 둔다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+            @Value("${datasource.replica.urls}") String[] urls,
+            @Value("${datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${datasource.replica.health-interval:2s}") Duration healthInterval,
+            @Value("${datasource.replica.connection-timeout:1s}") Duration connectionTimeout
+    ) {
+        HikariDataSource primary = HikariPools.web(properties, environment, meterRegistry,
+                ReplicaRoutingDataSource.PRIMARY, properties.determineUrl());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = HikariPools.create(properties, environment, meterRegistry,
+                    name, urls[i].trim(), null);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, healthInterval);
+    }
+}
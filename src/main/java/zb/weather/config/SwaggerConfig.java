@@ -1,15 +1,25 @@
 package zb.weather.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+import springfox.documentation.spring.web.readers.operation.HandlerMethodResolver;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import javax.servlet.ServletContext;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @Configuration
 @EnableSwagger2
 public class SwaggerConfig {
@@ -29,4 +39,29 @@ public class SwaggerConfig {
                 .version("2.0")
                 .build();
     }
+
+    /**
+     * Actuator 엔드포인트는 PathPatternParser 기반 매핑을 쓰는데 springfox 3.0 은 이를 처리하지 못해 기동에 실패한다.
+     * 애플리케이션 매핑은 ant_path_matcher 설정으로 AntPathMatcher 를 쓰므로, springfox 의 핸들러 제공자를
+     * PathPatternParser 를 쓰지 않는 매핑만으로 다시 만들어 바꿔 끼운다.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor(
+            ObjectProvider<ServletContext> servletContext,
+            ObjectProvider<HandlerMethodResolver> methodResolver,
+            ObjectProvider<RequestMappingInfoHandlerMapping> handlerMappings) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof WebMvcRequestHandlerProvider)) {
+                    return bean;
+                }
+                List<RequestMappingInfoHandlerMapping> antPathMappings = handlerMappings.orderedStream()
+                        .filter(mapping -> mapping.getPatternParser() == null)
+                        .collect(Collectors.toList());
+                return new WebMvcRequestHandlerProvider(Optional.ofNullable(servletContext.getIfAvailable()),
+                        methodResolver.getObject(), antPathMappings);
+            }
+        };
+    }
 }
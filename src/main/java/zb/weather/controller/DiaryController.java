@@ -1,57 +1,189 @@
 package zb.weather.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import zb.weather.datasource.ReplicaRoutingDataSource;
 import zb.weather.domain.Diary;
+import zb.weather.dto.BulkCreateResult;
+import zb.weather.dto.DiaryCursor;
+import zb.weather.dto.DiaryDateGroup;
+import zb.weather.dto.DiaryPage;
+import zb.weather.dto.DiaryRequest;
+import zb.weather.ingest.DiaryWriteBehind;
+import zb.weather.service.DiaryExecutor;
+import zb.weather.service.DiaryJsonCache;
 import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryVersions;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 public class DiaryController {
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // 같은 날짜, 같은 날씨의 일기를 묶어 날씨 필드를 한 번만 싣는 응답 형식 (DiaryDateGroup)
+    public static final MediaType APPLICATION_DIARY_GROUPED = MediaType.parseMediaType("application/vnd.weather.diary-grouped+json");
+    private static final String VARY_HEADERS = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final DiaryService diaryService;
+    // 날씨 조회가 필요한 생성 요청만 diary.execution.mode 에 따라 별도 풀에서 실행한다.
+    private final DiaryExecutor diaryExecutor;
+    // 켜져 있으면 생성 요청을 로컬 로그에 기록만 하고 202 로 응답한다.
+    private final DiaryWriteBehind diaryWriteBehind;
+    private final DiaryVersions diaryVersions;
+    private final DiaryJsonCache diaryJsonCache;
+    // 복제본 설정이 없으면 null
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+    // 지난 날짜만 담은 응답은 이 시간 동안 재검증 없이 캐시해도 된다.
+    private final CacheControl pastCacheControl;
+    private final ObjectMapper objectMapper;
+    // 스트리밍 시 일기마다 flush 하지 않고 생성기 버퍼가 찰 때만 내보낸다.
+    private final ObjectWriter streamWriter;
 
-    public DiaryController(DiaryService diaryService) {
+    public DiaryController(DiaryService diaryService, DiaryExecutor diaryExecutor, DiaryWriteBehind diaryWriteBehind,
+                           DiaryVersions diaryVersions,
+                           DiaryJsonCache diaryJsonCache, ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                           ObjectMapper objectMapper,
+                           @Value("${diary.http.past-max-age:60s}") Duration pastMaxAge) {
         this.diaryService = diaryService;
+        this.diaryExecutor = diaryExecutor;
+        this.diaryWriteBehind = diaryWriteBehind;
+        this.diaryVersions = diaryVersions;
+        this.diaryJsonCache = diaryJsonCache;
+        this.replicaRoutingDataSource = replicaRoutingDataSource.getIfAvailable();
+        this.pastCacheControl = CacheControl.maxAge(pastMaxAge).mustRevalidate();
+        this.objectMapper = objectMapper;
+        this.streamWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
-    @ApiOperation(value = "일기 생성", notes = "날짜와 일기 내용을 입력받아 해당 날짜의 일기를 저장합니다.")
+    @ApiOperation(value = "일기 생성", notes = "날짜와 일기 내용을 입력받아 해당 날짜의 일기를 저장합니다. Idempotency-Key 헤더가 같은 요청은 한 번만 저장됩니다. write-behind 가 켜져 있으면 로그에 기록한 뒤 202 를 반환하고 저장은 나중에 합니다.")
     @PostMapping("/create/diary")
-    public ResponseEntity<String> createDiary(
+    public CompletableFuture<ResponseEntity<String>> createDiary(
             @RequestParam
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "일기를 작성할 날짜", example = "2024-11-29") LocalDate date,
             @RequestBody
-            @ApiParam(value = "일기 내용") String text
+            @ApiParam(value = "일기 내용") String text,
+            @RequestHeader(value = "Idempotency-Key", required = false)
+            @ApiParam(value = "재전송 시 중복 저장을 막기 위한 요청 키") String idempotencyKey
     ) {
-        try {
-            diaryService.createDiary(date, text);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body("Diary created successfully");
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Unexpected error occurred");
+        if (diaryWriteBehind.isEnabled()) {
+            diaryWriteBehind.submit(date, text, idempotencyKey);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body("Diary accepted"));
         }
+        return diaryExecutor.supply(() -> diaryService.createDiary(date, text, idempotencyKey))
+                .handle((created, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof RejectedExecutionException) {
+                            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                    .body("Server is busy");
+                        }
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body("Unexpected error occurred");
+                    }
+                    if (!created) {
+                        return ResponseEntity.ok("Diary already created");
+                    }
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body("Diary created successfully");
+                });
+    }
+
+    @ApiOperation(value = "일기 일괄 생성", notes = "여러 (날짜, 내용) 쌍을 받아 한 번에 저장하고 항목별 결과와 처리량을 반환합니다.")
+    @PostMapping("/create/diaries")
+    public CompletableFuture<BulkCreateResult> createDiaries(
+            @RequestBody
+            @ApiParam(value = "저장할 일기 목록") List<DiaryRequest> requests
+    ) {
+        return diaryExecutor.supply(() -> diaryService.createDiaries(requests));
     }
 
-    @ApiOperation(value = "특정 날짜의 일기 조회", notes = "입력한 날짜의 모든 일기 데이터를 반환합니다.")
+    @ApiOperation(value = "특정 날짜의 일기 조회", notes = "입력한 날짜의 모든 일기 데이터를 반환합니다. Accept 가 application/vnd.weather.diary-grouped+json 이면 날씨별로 묶어 반환합니다.")
     @GetMapping("/read/diary")
-    public List<Diary> readDiary(
+    public ResponseEntity<byte[]> readDiary(
             @RequestParam
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
-            @ApiParam(value = "조회할 날짜", example = "2024-11-29") LocalDate date
+            @ApiParam(value = "조회할 날짜", example = "2024-11-29") LocalDate date,
+            ServletWebRequest webRequest
     ) {
-        return diaryService.readDiary(date);
+        DiaryVersions.Version version = diaryVersions.of(date);
+        String key = DiaryJsonCache.dateKey(date);
+        if (acceptsGrouped(webRequest)) {
+            return cached(webRequest, version, date, DiaryJsonCache.groupedKey(key), true,
+                    () -> DiaryDateGroup.group(diaryService.readDiary(date)));
+        }
+        return cached(webRequest, version, date, key, false, () -> diaryService.readDiary(date));
     }
 
-    @ApiOperation(value = "기간 내 일기 조회", notes = "입력한 시작 날짜부터 종료 날짜까지의 모든 일기 데이터를 반환합니다.")
+    @ApiOperation(value = "기간 내 일기 조회", notes = "입력한 시작 날짜부터 종료 날짜까지의 모든 일기 데이터를 반환합니다. Accept 가 application/vnd.weather.diary-grouped+json 이면 날짜, 날씨별로 묶어 반환합니다.")
     @GetMapping("/read/diaries")
-    public List<Diary> readDiaries(
+    public ResponseEntity<byte[]> readDiaries(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 시작 날짜", example = "2024-11-01") LocalDate startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 종료 날짜", example = "2024-11-29") LocalDate endDate,
+            ServletWebRequest webRequest
+    ) {
+        DiaryVersions.Version version = diaryVersions.of(startDate, endDate);
+        String key = DiaryJsonCache.rangeKey(startDate, endDate);
+        if (acceptsGrouped(webRequest)) {
+            return cached(webRequest, version, endDate, DiaryJsonCache.groupedKey(key), true,
+                    () -> DiaryDateGroup.group(diaryService.readDiaries(startDate, endDate)));
+        }
+        return cached(webRequest, version, endDate, key, false, () -> diaryService.readDiaries(startDate, endDate));
+    }
+
+    @ApiOperation(value = "기간 내 일기 페이지 조회", notes = "기간 내 일기를 (날짜, id) 순으로 size 개씩 반환합니다. 응답의 nextCursor 로 다음 페이지를 이어서 조회합니다.")
+    @GetMapping("/read/diaries/page")
+    public DiaryPage readDiariesPage(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 시작 날짜", example = "2024-11-01") LocalDate startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "조회할 종료 날짜", example = "2024-11-29") LocalDate endDate,
+            @RequestParam(required = false)
+            @ApiParam(value = "이전 응답의 nextCursor", example = "2024-11-03:42") String cursor,
+            @RequestParam(defaultValue = "100")
+            @ApiParam(value = "페이지 크기 (최대 1000)", example = "100") int size
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        DiaryCursor diaryCursor = cursor == null ? null : DiaryCursor.parse(cursor);
+        return diaryService.readDiariesPage(startDate, endDate, diaryCursor, pageSize);
+    }
+
+    @ApiOperation(value = "기간 내 일기 스트리밍 조회", notes = "기간 내 일기를 한 줄에 하나씩 NDJSON 으로 스트리밍합니다.")
+    @GetMapping("/read/diaries/stream")
+    public ResponseEntity<StreamingResponseBody> streamDiaries(
             @RequestParam
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "조회할 시작 날짜", example = "2024-11-01") LocalDate startDate,
@@ -59,28 +191,187 @@ public class DiaryController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "조회할 종료 날짜", example = "2024-11-29") LocalDate endDate
     ) {
-        return diaryService.readDiaries(startDate, endDate);
+        // 일기 Stream 은 streamDiaries 안에서 닫히고, 생성기는 중간에 실패해도 여기서 닫는다.
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                diaryService.streamDiaries(startDate, endDate, diary -> {
+                    try {
+                        streamWriter.writeValue(generator, diary);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
     }
 
-    @ApiOperation(value = "일기 수정", notes = "입력한 날짜의 일기 내용을 새로운 내용으로 수정합니다.")
+    @ApiOperation(value = "일기 검색", notes = "본문에 검색어가 들어 있는 일기를 (날짜, id) 순으로 반환합니다. 기간과 날씨로 좁힐 수 있습니다.")
+    @GetMapping("/search/diaries")
+    public List<Diary> searchDiaries(
+            @RequestParam
+            @ApiParam(value = "검색어", example = "우산") String query,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "시작 날짜", example = "2024-01-01") LocalDate startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "종료 날짜", example = "2024-11-29") LocalDate endDate,
+            @RequestParam(required = false)
+            @ApiParam(value = "날씨", example = "Rain") String weather,
+            @RequestParam(defaultValue = "50")
+            @ApiParam(value = "최대 개수 (최대 1000)", example = "50") int limit
+    ) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return diaryService.searchDiaries(query, startDate, endDate, weather, maxResults);
+    }
+
+    @ApiOperation(value = "일기 검색 색인 재구성", notes = "diary 테이블 전체로 검색 색인을 다시 만들고 색인된 일기 수를 반환합니다.")
+    @PostMapping("/search/diaries/rebuild")
+    public int rebuildSearchIndex() {
+        return diaryService.rebuildSearchIndex();
+    }
+
+    @ApiOperation(value = "일기 수정", notes = "입력한 날짜의 일기 내용을 새로운 내용으로 수정하고 수정된 일기 수를 반환합니다. 일기가 없으면 404 를 반환합니다.")
     @PutMapping("/update/diary")
-    public void updateDiary(
+    public ResponseEntity<Integer> updateDiary(
             @RequestParam
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "수정할 날짜", example = "2024-11-29") LocalDate date,
             @RequestBody
             @ApiParam(value = "새로운 일기 내용") String text
     ) {
-        diaryService.updateDiary(date, text);
+        return countOrNotFound(diaryService.updateDiary(date, text));
     }
 
-    @ApiOperation(value = "일기 삭제", notes = "입력한 날짜의 모든 일기 데이터를 삭제합니다.")
+    @ApiOperation(value = "일기 삭제", notes = "입력한 날짜의 모든 일기 데이터를 삭제하고 삭제된 일기 수를 반환합니다. 일기가 없으면 404 를 반환합니다.")
     @DeleteMapping("/delete/diary")
-    public void deleteDiary(
+    public ResponseEntity<Integer> deleteDiary(
             @RequestParam
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @ApiParam(value = "삭제할 날짜", example = "2024-11-29") LocalDate date
     ) {
-        diaryService.deleteDiary(date);
+        return countOrNotFound(diaryService.deleteDiary(date));
+    }
+
+    private static ResponseEntity<Integer> countOrNotFound(int count) {
+        if (count == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(count);
+    }
+
+    /**
+     * 조건부 요청을 처리한 뒤 캐시된 JSON 을 내려준다. 클라이언트가 gzip 을 받고 압축본이 있으면 압축본을 보낸다.
+     * 표현(묶음 여부, gzip 여부)마다 ETag 를 달리해 중간 캐시가 서로 섞지 않게 한다.
+     * Tomcat 은 강한 ETag 가 붙은 응답을 압축하지 않으므로 여기서 직접 압축한다.
+     */
+    private ResponseEntity<byte[]> cached(ServletWebRequest webRequest, DiaryVersions.Version version, LocalDate lastDate,
+                                          String key, boolean grouped, Supplier<?> loader) {
+        boolean gzip = acceptsGzip(webRequest);
+        webRequest.getResponse().setHeader(HttpHeaders.VARY, VARY_HEADERS);
+        // 압축본이 있는지는 캐시를 보기 전에 알 수 없으므로 304 판단에는 gzip 을 받는지만 반영한다.
+        if (checkNotModified(webRequest, version, lastDate, variant(grouped, gzip))) {
+            return null;
+        }
+        DiaryJsonCache.Entry entry = diaryJsonCache.get(key, version.getSeq(), consistentWith(version, loader));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(grouped ? APPLICATION_DIARY_GROUPED : MediaType.APPLICATION_JSON);
+        if (gzip && entry.getGzip() != null) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(entry.getGzip());
+        }
+        return builder.body(entry.getJson());
+    }
+
+    /**
+     * 날짜 버전으로 ETag, Last-Modified, Cache-Control 을 채우고, 클라이언트가 가진 것과 같으면 304 로 끝낸다.
+     * 304 이면 DB 를 조회하지 않는다. 같은 ETag 의 본문은 consistentWith 로 그 버전 이후의 데이터에서 만든다.
+     */
+    private boolean checkNotModified(ServletWebRequest webRequest, DiaryVersions.Version version, LocalDate lastDate,
+                                     String variant) {
+        CacheControl cacheControl = lastDate.isBefore(LocalDate.now()) ? pastCacheControl : CacheControl.noCache();
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        return webRequest.checkNotModified(version.getETag(variant), version.getLastModified());
+    }
+
+    /**
+     * 캐시와 ETag 는 version 기준이므로 그 버전의 변경이 아직 복제본에 없을 수 있으면 프라이머리에서 읽는다.
+     * 복제본에서 읽은 이전 데이터가 새 버전으로 캐시되면 다음 수정 전까지 계속 그 데이터가 나간다.
+     */
+    private Supplier<?> consistentWith(DiaryVersions.Version version, Supplier<?> loader) {
+        if (replicaRoutingDataSource == null || !replicaRoutingDataSource.mayLag(version.getLastModified())) {
+            return loader;
+        }
+        return () -> {
+            try (ReplicaRoutingDataSource.Scope ignored = ReplicaRoutingDataSource.primaryOnly()) {
+                return loader.get();
+            }
+        };
+    }
+
+    private static String variant(boolean grouped, boolean gzip) {
+        return (grouped ? "g" : "") + (gzip ? "z" : "");
+    }
+
+    private static boolean acceptsGrouped(ServletWebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (APPLICATION_DIARY_GROUPED.equalsTypeAndSubtype(mediaType)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Accept-Encoding 의 각 코딩과 q 값을 보고 gzip 을 받는지 판단한다. gzip 이 직접 적혀 있으면 그 q 값을,
+     * 없으면 * 의 q 값을 따르고 q=0 은 거부로 본다. q 값을 읽을 수 없는 항목은 무시한다.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = -1;
+                    }
+                }
+            }
+            if (quality < 0) {
+                continue;
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (name.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    private static boolean acceptsGzip(ServletWebRequest webRequest) {
+        return acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
     }
 }
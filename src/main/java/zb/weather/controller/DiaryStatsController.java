@@ -0,0 +1,47 @@
+package zb.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zb.weather.dto.DiaryStats;
+import zb.weather.service.DiaryStatsService;
+
+import java.time.LocalDate;
+
+@RestController
+public class DiaryStatsController {
+    private final DiaryStatsService diaryStatsService;
+
+    public DiaryStatsController(DiaryStatsService diaryStatsService) {
+        this.diaryStatsService = diaryStatsService;
+    }
+
+    @ApiOperation(value = "기간 내 일기 통계", notes = "기간 전체와 월별 일기 수, 일기가 있는 날 수, 그날들의 평균 기온, 날씨별 일기 수를 반환합니다. 미리 집계한 값을 읽으므로 일기 수와 관계없이 기간 길이만큼만 읽습니다.")
+    @GetMapping("/read/diary/stats")
+    public DiaryStats readDiaryStats(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "시작 날짜", example = "2024-01-01") LocalDate startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "종료 날짜", example = "2024-11-29") LocalDate endDate
+    ) {
+        return diaryStatsService.stats(startDate, endDate);
+    }
+
+    @ApiOperation(value = "일기 통계 집계 재구성", notes = "diary 테이블 전체로 집계를 다시 만들고 집계 행 수를 반환합니다. 다른 노드가 재구성 중이거나 직전 재구성 뒤 diary.rollup.lock-at-least-for 가 지나지 않았으면 409 를 반환합니다.")
+    @PostMapping("/diary/stats/rebuild")
+    public ResponseEntity<Integer> rebuildDiaryStats() {
+        Integer rows = diaryStatsService.rebuildLocked();
+        if (rows == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(rows);
+    }
+}
@@ -0,0 +1,48 @@
+package zb.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import zb.weather.backfill.BackfillJob;
+import zb.weather.backfill.WeatherBackfillService;
+
+import java.time.LocalDate;
+
+@RestController
+public class WeatherBackfillController {
+    private final WeatherBackfillService weatherBackfillService;
+
+    public WeatherBackfillController(WeatherBackfillService weatherBackfillService) {
+        this.weatherBackfillService = weatherBackfillService;
+    }
+
+    @ApiOperation(value = "과거 날씨 백필 시작", notes = "기간 내 날씨 데이터가 없는 날짜를 찾아 외부 API 에서 채웁니다. 진행 상황은 반환된 id 로 조회합니다.")
+    @PostMapping("/backfill/weather")
+    public ResponseEntity<BackfillJob> startBackfill(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "시작 날짜", example = "2024-01-01") LocalDate startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "종료 날짜", example = "2024-11-29") LocalDate endDate
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(weatherBackfillService.start(startDate, endDate));
+    }
+
+    @ApiOperation(value = "과거 날씨 백필 진행 상황", notes = "처리 건수, 실패 건수, 재시도 횟수와 남은 예상 시간을 반환합니다.")
+    @GetMapping("/backfill/weather/{id}")
+    public ResponseEntity<BackfillJob> getBackfill(
+            @PathVariable
+            @ApiParam(value = "백필 작업 id", example = "1") long id
+    ) {
+        BackfillJob job = weatherBackfillService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+}
@@ -0,0 +1,34 @@
+package zb.weather.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import zb.weather.dto.WeatherStats;
+import zb.weather.service.WeatherSeries;
+
+import java.time.LocalDate;
+
+@RestController
+public class WeatherStatsController {
+    private final WeatherSeries weatherSeries;
+
+    public WeatherStatsController(WeatherSeries weatherSeries) {
+        this.weatherSeries = weatherSeries;
+    }
+
+    @ApiOperation(value = "기간 내 날씨 통계", notes = "기간 내 최저/최고/평균 기온과 날씨별 일수를 반환합니다. 저장된 날씨가 없는 날은 제외합니다.")
+    @GetMapping("/read/weather/stats")
+    public WeatherStats readWeatherStats(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "시작 날짜", example = "2024-01-01") LocalDate startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @ApiParam(value = "종료 날짜", example = "2024-11-29") LocalDate endDate
+    ) {
+        return weatherSeries.stats(startDate, endDate);
+    }
+}
@@ -0,0 +1,239 @@
+package zb.weather.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 커넥션을 누가 얼마나 오래 잡았는지 잰다. 커넥션을 얻을 때 현재 스레드의 holder(ConnectionHolderAspect 가
+ * DiaryService 메서드 이름으로 표시)와 Workload 를 기록하고, 돌려줄 때 점유 시간을 db.connection.hold 에 남긴다.
+ *
+ * long-threshold 를 넘겨 돌려준 커넥션은 경고로 남기고, leak-threshold 가 지나도록 돌려주지 않은 커넥션은
+ * 주기적으로 찾아 한 번 경고한다. holder 표시가 없는 곳에서 얻은 커넥션은 "other" 로 집계한다.
+ */
+@Component
+public class ConnectionHoldTracker implements MeterBinder, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHoldTracker.class);
+    private static final ThreadLocal<String> HOLDER = new ThreadLocal<>();
+    public static final String OTHER = "other";
+
+    private final boolean enabled;
+    private final long longHoldNanos;
+    private final long leakNanos;
+    private final Set<Hold> open = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leakChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "connection-leak-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private MeterRegistry registry;
+    private Counter longHolds;
+    private Counter leaks;
+
+    public ConnectionHoldTracker(@Value("${datasource.hold.enabled:true}") boolean enabled,
+                                 @Value("${datasource.hold.long-threshold:500ms}") Duration longThreshold,
+                                 @Value("${datasource.hold.leak-threshold:30s}") Duration leakThreshold) {
+        this.enabled = enabled;
+        this.longHoldNanos = longThreshold.toNanos();
+        this.leakNanos = leakThreshold.toNanos();
+    }
+
+    /**
+     * 이 스레드에서 얻는 커넥션의 holder 를 정하고 이전 holder 를 반환한다. 끝나면 exit 에 넘겨 되돌린다.
+     */
+    public static String enter(String holder) {
+        String previous = HOLDER.get();
+        HOLDER.set(holder);
+        return previous;
+    }
+
+    public static void exit(String previous) {
+        if (previous == null) {
+            HOLDER.remove();
+        } else {
+            HOLDER.set(previous);
+        }
+    }
+
+    /**
+     * target 에서 얻는 커넥션의 점유 시간을 재는 DataSource. 꺼져 있으면 target 을 그대로 반환한다.
+     */
+    public DataSource track(DataSource target) {
+        if (!enabled) {
+            return target;
+        }
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return track(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return track(super.getConnection(username, password));
+            }
+        };
+    }
+
+    public int getOpenCount() {
+        return open.size();
+    }
+
+    private Connection track(Connection connection) {
+        String holder = HOLDER.get();
+        Hold hold = new Hold(holder == null ? OTHER : holder, Workload.current(), Thread.currentThread().getName());
+        open.add(hold);
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new TrackedConnection(connection, hold));
+    }
+
+    private void release(Hold hold) {
+        if (!hold.released.compareAndSet(false, true)) {
+            return;
+        }
+        open.remove(hold);
+        long nanos = System.nanoTime() - hold.acquiredAt;
+        if (registry != null) {
+            holdTimers.computeIfAbsent(hold.holder + "|" + hold.workload, key -> Timer.builder("db.connection.hold")
+                    .description("커넥션을 얻어서 돌려줄 때까지의 시간")
+                    .tag("holder", hold.holder)
+                    .tag("workload", hold.workload.name().toLowerCase(Locale.ROOT))
+                    .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (nanos >= longHoldNanos) {
+            if (longHolds != null) {
+                longHolds.increment();
+            }
+            logger.warn("{} held a {} connection for {}ms on {}",
+                    hold.holder, hold.workload, TimeUnit.NANOSECONDS.toMillis(nanos), hold.thread);
+        }
+    }
+
+    void checkLeaks() {
+        long now = System.nanoTime();
+        for (Hold hold : open) {
+            long nanos = now - hold.acquiredAt;
+            if (nanos >= leakNanos && !hold.reported) {
+                hold.reported = true;
+                if (leaks != null) {
+                    leaks.increment();
+                }
+                logger.warn("possible connection leak: {} has held a {} connection for {}ms on {}",
+                        hold.holder, hold.workload, TimeUnit.NANOSECONDS.toMillis(nanos), hold.thread);
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        long intervalMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(leakNanos) / 2);
+        leakChecker.scheduleWithFixedDelay(this::checkLeaks, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("db.connection.held", this, ConnectionHoldTracker::getOpenCount)
+                .description("애플리케이션이 잡고 있는 커넥션 수")
+                .register(registry);
+        longHolds = Counter.builder("db.connection.long-holds")
+                .description("long-threshold 보다 오래 잡았다가 돌려준 커넥션 수")
+                .register(registry);
+        leaks = Counter.builder("db.connection.leaks")
+                .description("leak-threshold 가 지나도록 돌려주지 않은 커넥션 수")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        leakChecker.shutdownNow();
+    }
+
+    private static class Hold {
+        private final String holder;
+        private final Workload workload;
+        private final String thread;
+        private final long acquiredAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean reported;
+
+        Hold(String holder, Workload workload, String thread) {
+            this.holder = holder;
+            this.workload = workload;
+            this.thread = thread;
+        }
+    }
+
+    private class TrackedConnection implements InvocationHandler {
+        private final Connection target;
+        private final Hold hold;
+
+        TrackedConnection(Connection target, Hold hold) {
+            this.target = target;
+            this.hold = hold;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    release(hold);
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
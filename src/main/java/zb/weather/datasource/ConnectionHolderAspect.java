@@ -0,0 +1,28 @@
+package zb.weather.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * DiaryService 의 public 메서드 안에서 얻은 커넥션을 그 메서드 이름으로 표시한다.
+ * 트랜잭션 어드바이스보다 바깥에서 돌아야 트랜잭션 시작 때 얻는 커넥션도 표시되므로 가장 높은 우선순위를 둔다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionHolderAspect {
+
+    @Around("execution(public * zb.weather.service.DiaryService.*(..))")
+    public Object markHolder(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = ConnectionHoldTracker.enter("DiaryService." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConnectionHoldTracker.exit(previous);
+        }
+    }
+}
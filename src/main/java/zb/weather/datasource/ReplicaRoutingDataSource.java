@@ -0,0 +1,258 @@
+package zb.weather.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 복제본으로, 나머지는 프라이머리로 보낸다.
+ * 트랜잭션의 readOnly 표시는 커넥션을 얻은 뒤에 설정되므로 LazyConnectionDataSourceProxy 로 감싸서 써야 한다.
+ *
+ * health-interval 마다 프라이머리의 replica_heartbeat 에 현재 시각을 쓰고, 다음 검사 때 프라이머리에 있는
+ * 마지막 값과 각 복제본이 가진 값의 차이로 지연을 잰다. 새 값을 쓰기 전에 읽으므로 검사 간격이 지연에 섞이지 않는다.
+ * 읽기에 실패했거나 지연이 max-lag 를 넘은 복제본은 빠지고, 쓸 수 있는 복제본이 없으면 읽기도 프라이머리로 보낸다.
+ * 방금 커밋한 데이터를 읽어야 하는 곳은 primaryOnly() 범위 안에서 조회해 읽기 전용이어도 프라이머리로 보낸다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    public static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final long healthIntervalMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration maxLag, Duration healthInterval) {
+        this.primary = primary;
+        this.maxLagMillis = maxLag.toMillis();
+        this.healthIntervalMillis = healthInterval.toMillis();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            this.replicas.add(new Replica(entry.getKey(), entry.getValue()));
+            targets.put(entry.getKey(), entry.getValue());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkHealth();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                healthIntervalMillis, healthIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = PRIMARY;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_ONLY.get() == null) {
+            Replica replica = chooseReplica();
+            if (replica != null) {
+                target = replica.getName();
+            } else if (fallbacks != null) {
+                fallbacks.increment();
+            }
+        }
+        Counter counter = routed.get(target);
+        if (counter != null) {
+            counter.increment();
+        }
+        return target;
+    }
+
+    /**
+     * 이 스레드의 조회를 읽기 전용이어도 프라이머리로 보낸다. 반환한 Scope 를 닫으면 이전 상태로 돌아간다.
+     */
+    public static Scope primaryOnly() {
+        Scope scope = new Scope(PRIMARY_ONLY.get());
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        return scope;
+    }
+
+    /**
+     * modifiedAt 에 커밋된 변경이 아직 복제본에 없을 수 있으면 true.
+     * 지연은 검사 때마다 직전 검사에서 쓴 heartbeat 로 재므로 최대 두 검사 간격만큼 늦게 반영된다.
+     */
+    public boolean mayLag(long modifiedAt) {
+        return System.currentTimeMillis() - modifiedAt <= maxLagMillis + 2 * healthIntervalMillis;
+    }
+
+    /**
+     * 사용 가능한 복제본을 돌아가며 고른다. 없으면 null.
+     */
+    private Replica chooseReplica() {
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.isHealthy() && replica.getLagMillis() <= maxLagMillis) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void checkHealth() {
+        Timestamp written = null;
+        try {
+            written = readHeartbeat(primary);
+        } catch (Exception e) {
+            logger.warn("failed to read primary heartbeat: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            try {
+                Timestamp seen = readHeartbeat(replica.getDataSource());
+                // 프라이머리에 아직 쓴 값이 없으면(처음 기동) 잴 수 없으므로 다음 검사까지 빼 둔다.
+                long lag = written == null || seen == null
+                        ? Long.MAX_VALUE : Math.max(0, written.getTime() - seen.getTime());
+                replica.update(true, lag);
+            } catch (Exception e) {
+                if (replica.isHealthy()) {
+                    logger.warn("replica {} is unhealthy: {}", replica.getName(), e.getMessage());
+                }
+                replica.update(false, Long.MAX_VALUE);
+            }
+        }
+        try {
+            writeHeartbeat(new Timestamp(System.currentTimeMillis()));
+        } catch (Exception e) {
+            logger.warn("failed to write replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    private static Timestamp readHeartbeat(DataSource dataSource) {
+        List<Timestamp> beats = new JdbcTemplate(dataSource).queryForList(
+                "select beat_at from replica_heartbeat where id = 1", Timestamp.class);
+        return beats.isEmpty() ? null : beats.get(0);
+    }
+
+    private void writeHeartbeat(Timestamp beatAt) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+        if (jdbcTemplate.update("update replica_heartbeat set beat_at = ? where id = 1", beatAt) == 0) {
+            jdbcTemplate.update("insert into replica_heartbeat(id, beat_at) values(1, ?)", beatAt);
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        routed.put(PRIMARY, Counter.builder("datasource.routing").tag("target", PRIMARY).register(registry));
+        for (Replica replica : replicas) {
+            routed.put(replica.getName(),
+                    Counter.builder("datasource.routing").tag("target", replica.getName()).register(registry));
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(registry);
+            Gauge.builder("datasource.replica.lag", replica,
+                            r -> r.getLagMillis() == Long.MAX_VALUE ? Double.NaN : r.getLagMillis() / 1000.0)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+        fallbacks = Counter.builder("datasource.routing.fallback")
+                .description("쓸 수 있는 복제본이 없어 프라이머리로 보낸 읽기 전용 커넥션 수")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            close(replica.getDataSource());
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Boolean previous;
+
+        private Scope(Boolean previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        }
+    }
+
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void update(boolean healthy, long lagMillis) {
+            this.healthy = healthy;
+            this.lagMillis = lagMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+}
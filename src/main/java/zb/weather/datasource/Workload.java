@@ -0,0 +1,53 @@
+package zb.weather.datasource;
+
+/**
+ * 커넥션을 얻는 작업의 종류. WorkloadRoutingDataSource 는 현재 스레드의 Workload 로 풀을 고른다.
+ * 표시가 없는 스레드(요청 처리 스레드, DiaryExecutor)는 WEB 이다.
+ */
+public enum Workload {
+    WEB, SCHEDULER, BACKFILL;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload == null ? WEB : workload;
+    }
+
+    /**
+     * 이 스레드를 workload 로 표시한다. 반환한 Scope 를 닫으면 이전 표시로 돌아간다.
+     */
+    public static Scope enter(Workload workload) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(workload);
+        return scope;
+    }
+
+    /**
+     * 백그라운드 스레드 팩토리용. task 를 이 workload 로 표시한 채 실행한다.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try (Scope ignored = enter(this)) {
+                task.run();
+            }
+        };
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Workload previous;
+
+        private Scope(Workload previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
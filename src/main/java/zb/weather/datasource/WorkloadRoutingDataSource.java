@@ -0,0 +1,57 @@
+package zb.weather.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 현재 스레드의 Workload 에 맞는 풀에서 커넥션을 얻는다. 스케줄 작업과 백필이 긴 배치로 커넥션을 잡아도
+ * 요청 처리(WEB) 풀은 비지 않는다. 따로 풀이 없는 Workload 는 web 풀을 쓴다.
+ *
+ * 닫을 때 web 을 포함해 넘겨받은 풀 중 Closeable 인 것(HikariDataSource)을 닫는다.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private final DataSource web;
+    private final Map<Workload, DataSource> pools;
+
+    public WorkloadRoutingDataSource(DataSource web, Map<Workload, DataSource> pools) {
+        this.web = web;
+        this.pools = new EnumMap<>(Workload.class);
+        this.pools.putAll(pools);
+        Map<Object, Object> targets = new HashMap<>();
+        for (Workload workload : Workload.values()) {
+            targets.put(workload, pools.getOrDefault(workload, web));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(web);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+
+    public DataSource getPool(Workload workload) {
+        return pools.getOrDefault(workload, web);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource pool : pools.values()) {
+            close(pool);
+        }
+        close(web);
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
@@ -6,16 +6,27 @@ import lombok.Setter;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Transient;
 import java.time.LocalDate;
 
 @Getter
 @Setter
 @Entity(name = "date_weather")
 @NoArgsConstructor
+@IdClass(DateWeatherId.class)
 public class DateWeather {
+    @Id
+    private int locationId = Location.DEFAULT_ID;
     @Id
     private LocalDate date;
     private String weather;
     private String icon;
     private double temperature;
+
+    /**
+     * 외부 API 장애로 최근 날씨를 대신 채운 값이면 true. 저장하지 않는다.
+     */
+    @Transient
+    private boolean stale;
 }
@@ -0,0 +1,21 @@
+package zb.weather.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * date_weather 의 기본 키 (location_id, date).
+ */
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateWeatherId implements Serializable {
+    private int locationId;
+    private LocalDate date;
+}
@@ -1,20 +1,30 @@
 package zb.weather.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = @Index(name = "ix_diary_date_id", columnList = "date, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class Diary {
+    /**
+     * text 컬럼(varchar(255))에 들어가는 최대 글자 수.
+     */
+    public static final int MAX_TEXT_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -23,9 +33,17 @@ public class Diary {
     private double temperature;
     private String text;
     private LocalDate date;
+    private int locationId = Location.DEFAULT_ID;
+    /**
+     * 클라이언트가 보낸 멱등성 키. 같은 요청이 재전송되어도 한 번만 저장되도록 unique 제약을 건다.
+     */
+    @JsonIgnore
+    @Column(unique = true, length = 64)
+    private String requestId;
 
     public void setDateWeather(DateWeather dateWeather) {
         this.date = dateWeather.getDate();
+        this.locationId = dateWeather.getLocationId();
         this.weather = dateWeather.getWeather();
         this.icon = dateWeather.getIcon();
         this.temperature = dateWeather.getTemperature();
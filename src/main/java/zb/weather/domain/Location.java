@@ -0,0 +1,35 @@
+package zb.weather.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+
+/**
+ * 날씨를 모으는 위치. 일기 생성과 날씨 캐시, 통계는 기본 위치(DEFAULT_ID)를 기준으로 한다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Location {
+    public static final int DEFAULT_ID = 1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+    private String name;
+    private double lat;
+    private double lon;
+
+    public Location(int id, String name, double lat, double lon) {
+        this.id = id;
+        this.name = name;
+        this.lat = lat;
+        this.lon = lon;
+    }
+}
@@ -0,0 +1,48 @@
+package zb.weather.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 일괄 생성 결과. items 는 요청 순서와 같은 순서로 항목별 성공 여부를 담는다.
+ */
+@Getter
+public class BulkCreateResult {
+    private final int requested;
+    private final int created;
+    private final int failed;
+    private final long elapsedMillis;
+    private final double diariesPerSecond;
+    private final List<Item> items;
+
+    public BulkCreateResult(List<Item> items, long elapsedNanos) {
+        this.items = items;
+        this.requested = items.size();
+        this.created = (int) items.stream().filter(Item::isCreated).count();
+        this.failed = requested - created;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.diariesPerSecond = elapsedNanos == 0 ? 0 : created * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Getter
+    public static class Item {
+        private final int index;
+        private final boolean created;
+        private final String error;
+
+        private Item(int index, boolean created, String error) {
+            this.index = index;
+            this.created = created;
+            this.error = error;
+        }
+
+        public static Item created(int index) {
+            return new Item(index, true, null);
+        }
+
+        public static Item failed(int index, String error) {
+            return new Item(index, false, error);
+        }
+    }
+}
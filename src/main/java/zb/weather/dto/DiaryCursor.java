@@ -0,0 +1,54 @@
+package zb.weather.dto;
+
+import lombok.Getter;
+import zb.weather.domain.Diary;
+import zb.weather.error.InvalidCursor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 키셋 페이지네이션 커서. (date, id) 순으로 정렬된 결과에서 마지막으로 받은 일기의 위치를 가리킨다.
+ * 문자열 형식은 "yyyy-MM-dd:id" 이다.
+ */
+@Getter
+public class DiaryCursor {
+    private static final char SEPARATOR = ':';
+
+    private final LocalDate date;
+    private final int id;
+
+    public DiaryCursor(LocalDate date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * startDate 의 첫 일기부터 읽는 커서.
+     */
+    public static DiaryCursor first(LocalDate startDate) {
+        return new DiaryCursor(startDate, 0);
+    }
+
+    public static DiaryCursor after(Diary diary) {
+        return new DiaryCursor(diary.getDate(), diary.getId());
+    }
+
+    public static DiaryCursor parse(String value) {
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new InvalidCursor();
+        }
+        try {
+            return new DiaryCursor(LocalDate.parse(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursor();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return date.toString() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,69 @@
+package zb.weather.dto;
+
+import lombok.Getter;
+import zb.weather.domain.Diary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 같은 날짜, 같은 위치, 같은 날씨의 일기를 묶은 응답 모양. 날씨 필드는 묶음마다 한 번만 쓰고 일기에는 id 와 본문만 남긴다.
+ */
+@Getter
+public class DiaryDateGroup {
+    private final LocalDate date;
+    private final int locationId;
+    private final String weather;
+    private final String icon;
+    private final double temperature;
+    private final List<Entry> diaries = new ArrayList<>();
+
+    private DiaryDateGroup(Diary first) {
+        this.date = first.getDate();
+        this.locationId = first.getLocationId();
+        this.weather = first.getWeather();
+        this.icon = first.getIcon();
+        this.temperature = first.getTemperature();
+    }
+
+    /**
+     * 일기를 (날짜, id) 순으로 놓고 날짜와 날씨가 같은 연속 구간을 하나로 묶는다.
+     */
+    public static List<DiaryDateGroup> group(List<Diary> diaries) {
+        List<Diary> sorted = new ArrayList<>(diaries);
+        sorted.sort(Comparator.comparing(Diary::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(Diary::getId));
+        List<DiaryDateGroup> groups = new ArrayList<>();
+        DiaryDateGroup group = null;
+        for (Diary diary : sorted) {
+            if (group == null || !group.accepts(diary)) {
+                group = new DiaryDateGroup(diary);
+                groups.add(group);
+            }
+            group.diaries.add(new Entry(diary.getId(), diary.getText()));
+        }
+        return groups;
+    }
+
+    private boolean accepts(Diary diary) {
+        return Objects.equals(date, diary.getDate())
+                && locationId == diary.getLocationId()
+                && Objects.equals(weather, diary.getWeather())
+                && Objects.equals(icon, diary.getIcon())
+                && Double.compare(temperature, diary.getTemperature()) == 0;
+    }
+
+    @Getter
+    public static class Entry {
+        private final int id;
+        private final String text;
+
+        private Entry(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package zb.weather.dto;
+
+import lombok.Getter;
+import zb.weather.domain.Diary;
+
+import java.util.List;
+
+@Getter
+public class DiaryPage {
+    private final List<Diary> diaries;
+    /**
+     * 다음 페이지를 읽을 커서. 마지막 페이지이면 null.
+     */
+    private final String nextCursor;
+
+    public DiaryPage(List<Diary> diaries, DiaryCursor nextCursor) {
+        this.diaries = diaries;
+        this.nextCursor = nextCursor == null ? null : nextCursor.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package zb.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class DiaryStats {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final Summary total;
+    /**
+     * 일기가 있는 달만 오름차순으로 담는다.
+     */
+    private final List<Month> months;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Summary {
+        private final int diaries;
+        /**
+         * 일기가 있는 날 수.
+         */
+        private final int diaryDays;
+        /**
+         * 일기가 있는 날의 평균 기온. 하루의 기온은 그날 일기들의 평균이다.
+         */
+        private final Double avgTemperature;
+        /**
+         * 날씨(Clear, Rain, ...)별 일기 수.
+         */
+        private final Map<String, Integer> conditions;
+    }
+
+    @Getter
+    public static class Month extends Summary {
+        /**
+         * yyyy-MM
+         */
+        private final String month;
+
+        public Month(String month, int diaries, int diaryDays, Double avgTemperature, Map<String, Integer> conditions) {
+            super(diaries, diaryDays, avgTemperature, conditions);
+            this.month = month;
+        }
+    }
+}
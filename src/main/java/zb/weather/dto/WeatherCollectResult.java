@@ -0,0 +1,30 @@
+package zb.weather.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * 한 번의 날씨 수집 결과.
+ */
+@Getter
+public class WeatherCollectResult {
+    private final LocalDate date;
+    private final int locations;
+    private final int workers;
+    private final int fetched;
+    private final int failed;
+    private final int saved;
+    private final long elapsedMillis;
+
+    public WeatherCollectResult(LocalDate date, int locations, int workers, int fetched, int failed, int saved,
+                                long elapsedNanos) {
+        this.date = date;
+        this.locations = locations;
+        this.workers = workers;
+        this.fetched = fetched;
+        this.failed = failed;
+        this.saved = saved;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,25 @@
+package zb.weather.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class WeatherStats {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    /**
+     * 기간 안에서 날씨 데이터가 있는 날 수.
+     */
+    private final int days;
+    private final Double minTemperature;
+    private final Double maxTemperature;
+    private final Double avgTemperature;
+    /**
+     * 날씨(Clear, Rain, ...)별 일수.
+     */
+    private final Map<String, Integer> conditions;
+}
@@ -0,0 +1,9 @@
+package zb.weather.error;
+
+public class InvalidCursor extends RuntimeException {
+    private static final String MESSAGE = "잘못된 페이지 커서입니다.";
+
+    public InvalidCursor() {
+        super(MESSAGE);
+    }
+}
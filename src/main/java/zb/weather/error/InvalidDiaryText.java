@@ -0,0 +1,9 @@
+package zb.weather.error;
+
+public class InvalidDiaryText extends RuntimeException {
+    private static final String MESSAGE = "일기 내용은 255자를 넘을 수 없습니다.";
+
+    public InvalidDiaryText() {
+        super(MESSAGE);
+    }
+}
@@ -0,0 +1,20 @@
+package zb.weather.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 외부 API 호출에 사용하는 HTTP 엔진.
+ * 구현체는 커넥션 재사용과 connect/read/total 타임아웃을 책임진다.
+ */
+public interface HttpEngine extends Closeable {
+    /**
+     * GET 요청을 보내고 응답 본문을 모두 읽어 반환한다.
+     * 타임아웃이 나면 {@link java.net.SocketTimeoutException} 을 던진다.
+     */
+    HttpResult get(String url) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
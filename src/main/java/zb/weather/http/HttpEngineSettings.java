@@ -0,0 +1,26 @@
+package zb.weather.http;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * HTTP 엔진 공통 설정. total 타임아웃은 커넥션 대기부터 본문 수신까지 전체에 적용된다.
+ */
+@Getter
+public class HttpEngineSettings {
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
+    private final int maxConnections;
+    private final Duration keepAlive;
+
+    public HttpEngineSettings(Duration connectTimeout, Duration readTimeout, Duration totalTimeout,
+                              int maxConnections, Duration keepAlive) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.totalTimeout = totalTimeout;
+        this.maxConnections = maxConnections;
+        this.keepAlive = keepAlive;
+    }
+}
@@ -0,0 +1,18 @@
+package zb.weather.http;
+
+import lombok.Getter;
+
+@Getter
+public class HttpResult {
+    private final int status;
+    private final String body;
+
+    public HttpResult(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public boolean isOk() {
+        return status >= 200 && status < 300;
+    }
+}
@@ -0,0 +1,81 @@
+package zb.weather.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apache HttpClient 커넥션 풀 기반 엔진.
+ * 응답 본문을 끝까지 읽으면 커넥션이 풀로 반납되어 keep-alive 로 재사용된다.
+ */
+public class PooledHttpEngine implements HttpEngine {
+    private final HttpEngineSettings settings;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+
+    public PooledHttpEngine(HttpEngineSettings settings) {
+        this.settings = settings;
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnections());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) settings.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) settings.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) settings.getTotalTimeout().toMillis())
+                .build();
+
+        long keepAliveMillis = settings.getKeepAlive().toMillis();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Override
+    public HttpResult get(String url) throws IOException {
+        HttpGet request = new HttpGet(url);
+        TotalTimeout totalTimeout = TotalTimeout.start(settings.getTotalTimeout(), request::abort);
+        try (CloseableHttpResponse response = client.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            String body = entity == null ? "" : ResponseBodyReader.read(entity.getContent());
+            return new HttpResult(response.getStatusLine().getStatusCode(), body);
+        } catch (IOException e) {
+            if (totalTimeout.isExpired()) {
+                throw totalTimeout.toException(url);
+            }
+            throw e;
+        } finally {
+            totalTimeout.cancel();
+        }
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+}
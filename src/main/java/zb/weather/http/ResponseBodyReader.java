@@ -0,0 +1,38 @@
+package zb.weather.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 응답 본문을 스레드별로 재사용하는 버퍼에 한 번에 읽어 들인다.
+ * 줄 단위 읽기와 StringBuilder 복사를 없애고, 본문 하나당 String 하나만 만든다.
+ */
+final class ResponseBodyReader {
+    private static final int INITIAL_SIZE = 16 * 1024;
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_SIZE]);
+
+    private ResponseBodyReader() {
+    }
+
+    static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        byte[] buffer = BUFFER.get();
+        int length = 0;
+        int n;
+        while ((n = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += n;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (buffer.length <= MAX_RETAINED_SIZE) {
+            BUFFER.set(buffer);
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
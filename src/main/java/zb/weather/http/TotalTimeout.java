@@ -0,0 +1,53 @@
+package zb.weather.http;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 요청 전체 시간 제한. 제한 시간이 지나면 abort 를 호출해 블로킹 중인 I/O 를 끊는다.
+ */
+final class TotalTimeout {
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+    private final AtomicBoolean expired = new AtomicBoolean();
+    private final ScheduledFuture<?> future;
+    private final Duration timeout;
+
+    private TotalTimeout(Duration timeout, Runnable abort) {
+        this.timeout = timeout;
+        this.future = SCHEDULER.schedule(() -> {
+            expired.set(true);
+            abort.run();
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    static TotalTimeout start(Duration timeout, Runnable abort) {
+        return new TotalTimeout(timeout, abort);
+    }
+
+    boolean isExpired() {
+        return expired.get();
+    }
+
+    void cancel() {
+        future.cancel(false);
+    }
+
+    SocketTimeoutException toException(String url) {
+        return new SocketTimeoutException("Total timeout of " + timeout.toMillis() + "ms exceeded: " + url);
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "http-total-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
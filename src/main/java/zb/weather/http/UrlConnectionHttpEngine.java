@@ -0,0 +1,45 @@
+package zb.weather.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * JDK HttpURLConnection 기반 엔진.
+ * disconnect() 를 호출하지 않고 본문을 끝까지 읽은 뒤 스트림만 닫아 JDK keep-alive 캐시로 커넥션을 돌려준다.
+ * 커넥션 수 상한은 JVM 전역 설정(http.maxConnections)을 따른다.
+ */
+public class UrlConnectionHttpEngine implements HttpEngine {
+    private final HttpEngineSettings settings;
+
+    public UrlConnectionHttpEngine(HttpEngineSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public HttpResult get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout((int) settings.getConnectTimeout().toMillis());
+        connection.setReadTimeout((int) settings.getReadTimeout().toMillis());
+
+        TotalTimeout totalTimeout = TotalTimeout.start(settings.getTotalTimeout(), connection::disconnect);
+        try {
+            int status = connection.getResponseCode();
+            InputStream stream = status >= HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getErrorStream()
+                    : connection.getInputStream();
+            try (InputStream body = stream) {
+                return new HttpResult(status, ResponseBodyReader.read(body));
+            }
+        } catch (IOException e) {
+            if (totalTimeout.isExpired()) {
+                throw totalTimeout.toException(url);
+            }
+            throw e;
+        } finally {
+            totalTimeout.cancel();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package zb.weather.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import zb.weather.datasource.Workload;
+import zb.weather.domain.Diary;
+import zb.weather.error.InvalidDiaryText;
+import zb.weather.service.DiaryService;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * diary.write-behind.enabled 이면 일기 생성 요청을 DiaryWriteLog 에 기록하고 디스크에 내린 뒤 바로 돌려준다.
+ * 백그라운드 스레드 하나가 로그에서 batch-size 개씩 꺼내 한 트랜잭션으로 저장하고 checkpoint 를 옮긴다.
+ * 저장하는 동안 쌓인 요청은 다음 배치로 함께 커밋되고, 재기동하면 저장되지 않은 요청부터 다시 저장한다.
+ * 요청 키가 없는 요청에는 키를 붙여 기록하므로 재기동으로 다시 저장해도 한 번만 들어간다.
+ * 날씨를 구하지 못한 일기는 max-attempts 번까지 다시 시도하고, 그래도 실패하면 dead-letter 로그로 옮기고 넘어가
+ * 뒤에 쌓인 일기를 막지 않는다. DB 에 저장하지 못하는 장애는 일기 탓이 아니므로 복구될 때까지 계속 다시 시도한다.
+ */
+@Component
+public class DiaryWriteBehind implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryWriteBehind.class);
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    private final DiaryService diaryService;
+    private final DiaryWriteLog log;
+    private final DiaryWriteLog deadLetter;
+    private final int batchSize;
+    private final long retryDelayMillis;
+    private final int maxAttempts;
+    private volatile boolean running = true;
+    private Thread writer;
+    private Counter committed;
+    private DistributionSummary batches;
+    private Counter deadLettered;
+
+    public DiaryWriteBehind(DiaryService diaryService,
+                            @Value("${diary.write-behind.enabled:false}") boolean enabled,
+                            @Value("${diary.write-behind.dir:data/diary-log}") String dir,
+                            @Value("${diary.write-behind.segment-size:16MB}") DataSize segmentSize,
+                            @Value("${diary.write-behind.max-pending:100000}") int maxPending,
+                            @Value("${diary.write-behind.batch-size:500}") int batchSize,
+                            @Value("${diary.write-behind.retry-delay:1s}") Duration retryDelay,
+                            @Value("${diary.write-behind.max-attempts:5}") int maxAttempts) throws IOException {
+        this.diaryService = diaryService;
+        this.log = enabled ? new DiaryWriteLog(new File(dir), (int) segmentSize.toBytes(), maxPending) : null;
+        this.deadLetter = enabled
+                ? new DiaryWriteLog(new File(dir, DEAD_LETTER_DIR), (int) segmentSize.toBytes(), maxPending) : null;
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelay.toMillis();
+        this.maxAttempts = maxAttempts;
+        if (log != null) {
+            logger.info("diary write-behind enabled at {}, {} diaries to replay", dir, log.pendingCount());
+        }
+    }
+
+    public boolean isEnabled() {
+        return log != null;
+    }
+
+    /**
+     * 일기를 로그에 기록하고 디스크에 내려갈 때까지 기다린다. 돌아오면 재기동해도 저장이 보장된다.
+     * text 컬럼에 들어가지 않는 일기는 기록하기 전에 InvalidDiaryText 로 거절한다.
+     */
+    public void submit(LocalDate date, String text, String requestId) {
+        if (date == null || text == null) {
+            throw new IllegalArgumentException("date and text are required");
+        }
+        if (text.length() > Diary.MAX_TEXT_LENGTH) {
+            throw new InvalidDiaryText();
+        }
+        String key = requestId != null ? requestId : "wb-" + UUID.randomUUID();
+        log.sync(log.append(date, text, key));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (log == null || writer != null) {
+            return;
+        }
+        writer = new Thread(Workload.SCHEDULER.wrap(this::drain), "diary-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void drain() {
+        int attempts = 0;
+        while (running) {
+            try {
+                List<DiaryWriteLog.Entry> batch = log.peek(batchSize, 1, TimeUnit.SECONDS);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                List<DiaryWriteLog.Entry> failed = diaryService.saveLoggedDiaries(batch);
+                if (!failed.isEmpty() && ++attempts < maxAttempts) {
+                    // 저장한 일기는 요청 키로 걸러지므로 같은 배치를 다시 꺼내 실패한 일기만 다시 시도한다.
+                    logger.warn("failed to get weather for {} diaries, attempt {}/{}, retrying in {}ms",
+                            failed.size(), attempts, maxAttempts, retryDelayMillis);
+                    Thread.sleep(retryDelayMillis);
+                    continue;
+                }
+                for (DiaryWriteLog.Entry entry : failed) {
+                    deadLetter(entry);
+                }
+                attempts = 0;
+                log.commit(batch.get(batch.size() - 1).getSeq());
+                if (committed != null) {
+                    committed.increment(batch.size() - failed.size());
+                    batches.record(batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("failed to write {} pending diaries, retrying in {}ms: ",
+                        log.pendingCount(), retryDelayMillis, e);
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deadLetter(DiaryWriteLog.Entry entry) {
+        logger.error("gave up on diary for {} after {} attempts, request {}",
+                entry.getDate(), maxAttempts, entry.getRequestId());
+        if (deadLettered != null) {
+            deadLettered.increment();
+        }
+        try {
+            deadLetter.sync(deadLetter.append(entry.getDate(), entry.getText(), entry.getRequestId()));
+        } catch (RuntimeException e) {
+            logger.error("failed to keep diary for request {} in dead-letter log: ", entry.getRequestId(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (log == null) {
+            return;
+        }
+        Gauge.builder("diary.write-behind.depth", log, DiaryWriteLog::pendingCount)
+                .description("로그에 기록됐지만 아직 DB 에 저장되지 않은 일기 수")
+                .register(registry);
+        Gauge.builder("diary.write-behind.lag", log, l -> l.lagMillis() / 1000.0)
+                .description("가장 오래 기다린 일기가 기록된 뒤 지난 시간")
+                .baseUnit("seconds")
+                .register(registry);
+        committed = Counter.builder("diary.write-behind.committed")
+                .description("로그에서 DB 로 저장한 일기 수")
+                .register(registry);
+        batches = DistributionSummary.builder("diary.write-behind.batch")
+                .description("한 번에 커밋한 일기 수")
+                .register(registry);
+        deadLettered = Counter.builder("diary.write-behind.dead-lettered")
+                .description("다시 시도해도 날씨를 구하지 못해 dead-letter 로그로 옮긴 일기 수")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        Thread current;
+        synchronized (this) {
+            current = writer;
+        }
+        if (current != null) {
+            current.interrupt();
+            current.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (log != null) {
+            log.close();
+            deadLetter.close();
+        }
+    }
+}
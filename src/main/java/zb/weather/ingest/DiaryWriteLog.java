@@ -0,0 +1,373 @@
+package zb.weather.ingest;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 저장 전 일기를 담는 추가 전용 로그. 고정 크기 세그먼트 파일을 메모리 매핑해 순서대로 기록하고,
+ * 레코드마다 [길이][CRC32][seq, 기록 시각, 날짜, 요청 키, 본문] 을 쓴다. 길이가 0 이면 세그먼트의 끝이다.
+ *
+ * append 는 매핑된 버퍼에 쓰기만 하고, sync 가 디스크에 내린다. 동시에 sync 를 부른 스레드들은
+ * 한 번의 force 를 함께 기다리므로(group commit) 요청마다 fsync 하지 않는다.
+ * DB 에 저장한 위치는 checkpoint 파일에 남기고, 다시 열면 그 뒤의 레코드를 대기열로 되살린다.
+ * 끝까지 저장된 세그먼트 파일은 지운다.
+ */
+public class DiaryWriteLog implements Closeable {
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    private final File dir;
+    private final int segmentSize;
+    private final int maxPending;
+    private final FileChannel checkpoint;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Object syncLock = new Object();
+    private Segment active;
+    private long lastSeq;
+    private long committedSeq;
+    private volatile long durableSeq;
+
+    public DiaryWriteLog(File dir, int segmentSize, int maxPending) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create diary log directory " + dir);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxPending = maxPending;
+        this.checkpoint = new RandomAccessFile(new File(dir, CHECKPOINT), "rw").getChannel();
+        this.committedSeq = readCheckpoint();
+        this.lastSeq = committedSeq;
+        recover();
+        this.durableSeq = lastSeq;
+    }
+
+    /**
+     * 로그 끝에 일기를 기록하고 seq 를 반환한다. 디스크에 내리려면 sync(seq) 를 부른다.
+     * 저장을 기다리는 일기가 max-pending 개면 RejectedExecutionException 을 던진다.
+     */
+    public synchronized long append(LocalDate date, String text, String requestId) {
+        if (pending.size() >= maxPending) {
+            throw new RejectedExecutionException("Diary write-behind log is full");
+        }
+        Entry entry = new Entry(lastSeq + 1, System.currentTimeMillis(), date, text, requestId);
+        byte[] payload = entry.encode();
+        if (HEADER_SIZE + payload.length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Diary is too large for the write-behind log");
+        }
+        if (active == null || active.buffer.remaining() < HEADER_SIZE + payload.length + 4) {
+            roll(entry.seq);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        int position = active.buffer.position();
+        // 본문과 CRC 를 먼저 쓰고 길이를 마지막에 채워, 길이가 보이면 레코드가 끝까지 쓰인 것이 되게 한다.
+        active.buffer.position(position + 4);
+        active.buffer.putInt((int) crc.getValue());
+        active.buffer.put(payload);
+        active.buffer.putInt(position, payload.length);
+        active.lastSeq = entry.seq;
+        lastSeq = entry.seq;
+        pending.addLast(entry);
+        notifyAll();
+        return entry.seq;
+    }
+
+    /**
+     * seq 까지 디스크에 내린다. 다른 스레드의 force 가 이미 seq 를 덮었으면 기다리기만 하고 돌아온다.
+     */
+    public void sync(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSeq >= seq) {
+                return;
+            }
+            long target;
+            MappedByteBuffer buffer;
+            synchronized (this) {
+                if (active == null) {
+                    return;
+                }
+                target = lastSeq;
+                buffer = active.buffer;
+            }
+            buffer.force();
+            durableSeq = target;
+        }
+    }
+
+    /**
+     * 저장을 기다리는 일기를 오래된 순으로 최대 max 개 반환한다. 없으면 timeout 동안 기다린다.
+     * 반환한 일기는 commit 하기 전까지 대기열에 남는다.
+     */
+    public synchronized List<Entry> peek(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Collections.emptyList();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        List<Entry> entries = new ArrayList<>(Math.min(max, pending.size()));
+        for (Entry entry : pending) {
+            if (entries.size() == max) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * seq 까지 DB 에 저장했다고 기록하고, 모두 저장된 세그먼트 파일을 지운다.
+     */
+    public synchronized void commit(long seq) {
+        while (!pending.isEmpty() && pending.peekFirst().seq <= seq) {
+            pending.removeFirst();
+        }
+        committedSeq = Math.max(committedSeq, seq);
+        writeCheckpoint(committedSeq);
+        while (segments.size() > 1 && segments.get(0).lastSeq <= committedSeq) {
+            segments.remove(0).delete();
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 가장 오래 기다린 일기가 기록된 지 지난 밀리초. 대기열이 비었으면 0.
+     */
+    public synchronized long lagMillis() {
+        Entry oldest = pending.peekFirst();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.appendedAt);
+    }
+
+    public synchronized long committedSeq() {
+        return committedSeq;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+        checkpoint.close();
+    }
+
+    private void roll(long firstSeq) {
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+            active = Segment.open(new File(dir, String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX)),
+                    segmentSize);
+            segments.add(active);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 세그먼트를 순서대로 읽어 checkpoint 뒤의 레코드를 대기열에 올린다. 마지막 세그먼트에서
+     * CRC 가 맞지 않는 레코드(기록 중 멈춘 것)를 만나면 거기서부터 지우고 이어 쓴다.
+     */
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            Segment segment = Segment.open(file, Math.max(segmentSize, (int) file.length()));
+            segments.add(segment);
+            active = segment;
+            ByteBuffer buffer = segment.buffer;
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int position = buffer.position();
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > buffer.remaining() - HEADER_SIZE) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                int crcValue = buffer.getInt(position + 4);
+                buffer.position(position + HEADER_SIZE);
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload, 0, payload.length);
+                if ((int) crc.getValue() != crcValue) {
+                    buffer.position(position);
+                    break;
+                }
+                Entry entry = Entry.decode(payload);
+                segment.lastSeq = entry.seq;
+                lastSeq = Math.max(lastSeq, entry.seq);
+                if (entry.seq > committedSeq) {
+                    pending.addLast(entry);
+                }
+            }
+            int end = buffer.position();
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) 0);
+            }
+            buffer.position(end);
+        }
+        while (segments.size() > 1 && segments.get(0).lastSeq <= committedSeq) {
+            segments.remove(0).delete();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        if (checkpoint.read(buffer, 0) < 8) {
+            return 0;
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private void writeCheckpoint(long seq) {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(seq).flip();
+        try {
+            checkpoint.write(buffer, 0);
+            checkpoint.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class Entry {
+        private final long seq;
+        private final long appendedAt;
+        private final LocalDate date;
+        private final String text;
+        private final String requestId;
+
+        Entry(long seq, long appendedAt, LocalDate date, String text, String requestId) {
+            this.seq = seq;
+            this.appendedAt = appendedAt;
+            this.date = date;
+            this.text = text;
+            this.requestId = requestId;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public long getAppendedAt() {
+            return appendedAt;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+
+        byte[] encode() {
+            byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+            byte[] keyBytes = requestId == null ? null : requestId.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 8 + 4 + (keyBytes == null ? 0 : keyBytes.length)
+                    + 4 + textBytes.length);
+            buffer.putLong(seq).putLong(appendedAt).putLong(date.toEpochDay());
+            putBytes(buffer, keyBytes);
+            putBytes(buffer, textBytes);
+            return buffer.array();
+        }
+
+        static Entry decode(byte[] payload) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long seq = buffer.getLong();
+            long appendedAt = buffer.getLong();
+            LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+            byte[] keyBytes = getBytes(buffer);
+            byte[] textBytes = getBytes(buffer);
+            return new Entry(seq, appendedAt, date, new String(textBytes, StandardCharsets.UTF_8),
+                    keyBytes == null ? null : new String(keyBytes, StandardCharsets.UTF_8));
+        }
+
+        private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        private static byte[] getBytes(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    private static class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long lastSeq;
+
+        private Segment(File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, int size) throws IOException {
+            FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+            return new Segment(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+
+        void delete() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 지울 파일이므로 닫기 실패는 무시한다.
+            }
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
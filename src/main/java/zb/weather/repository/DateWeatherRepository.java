@@ -1,13 +1,24 @@
 package zb.weather.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import zb.weather.domain.DateWeather;
+import zb.weather.domain.DateWeatherId;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DateWeatherRepository extends JpaRepository<DateWeather, LocalDate> {
-    List<DateWeather> findByDate(LocalDate localDate);
+public interface DateWeatherRepository extends JpaRepository<DateWeather, DateWeatherId> {
+    Optional<DateWeather> findByLocationIdAndDate(int locationId, LocalDate localDate);
+    Optional<DateWeather> findFirstByLocationIdOrderByDateDesc(int locationId);
+    List<DateWeather> findAllByLocationId(int locationId);
+    List<DateWeather> findAllByLocationIdAndDateBetween(int locationId, LocalDate startDate, LocalDate endDate);
+
+    @Query("select w.date from date_weather w where w.locationId = :locationId and w.date between :startDate and :endDate")
+    List<LocalDate> findDatesBetween(@Param("locationId") int locationId,
+                                     @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
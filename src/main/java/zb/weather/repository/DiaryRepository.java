@@ -1,18 +1,65 @@
 package zb.weather.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import zb.weather.domain.Diary;
 
-import javax.transaction.Transactional;
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface DiaryRepository extends JpaRepository<Diary, Integer> {
     List<Diary> findAllByDate(LocalDate date);
     List<Diary> findAllByDateBetween(LocalDate startDate, LocalDate endDate);
-    Diary getFirstByDate(LocalDate date);
+    boolean existsByRequestId(String requestId);
+
+    @Query("select d from Diary d where d.date between :startDate and :endDate"
+            + " and (d.date > :afterDate or (d.date = :afterDate and d.id > :afterId))"
+            + " order by d.date, d.id")
+    List<Diary> findPageAfter(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                              @Param("afterDate") LocalDate afterDate, @Param("afterId") int afterId,
+                              Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select d from Diary d where d.date between :startDate and :endDate order by d.date, d.id")
+    Stream<Diary> streamAllByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 해당 날짜의 첫 번째(id 가 가장 작은) 일기 내용을 한 문장으로 바꾸고 변경된 행 수를 반환한다.
+     * MySQL 은 UPDATE 대상 테이블을 서브쿼리에서 바로 참조할 수 없어 파생 테이블로 한 번 감싼다.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update diary set text = :text where id ="
+            + " (select id from (select min(id) as id from diary where date = :date) first_diary)",
+            nativeQuery = true)
+    int updateFirstTextByDate(@Param("date") LocalDate date, @Param("text") String text);
+
+    /**
+     * 해당 위치, 날짜 일기들의 날씨를 한 번에 바꾼다. stale 날씨로 저장된 일기를 나중에 바로잡을 때 쓴다.
+     * 다른 위치의 일기는 그 위치의 날씨를 가지므로 건드리지 않는다.
+     */
     @Transactional
-    void deleteAllByDate(LocalDate date);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Diary d set d.weather = :weather, d.icon = :icon, d.temperature = :temperature"
+            + " where d.locationId = :locationId and d.date = :date")
+    int updateWeatherByLocationAndDate(@Param("locationId") int locationId, @Param("date") LocalDate date,
+                                       @Param("weather") String weather, @Param("icon") String icon,
+                                       @Param("temperature") double temperature);
+
+    /**
+     * 해당 날짜의 일기를 DELETE 한 문장으로 지우고 삭제된 행 수를 반환한다.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Diary d where d.date = :date")
+    int deleteAllInBulkByDate(@Param("date") LocalDate date);
 }
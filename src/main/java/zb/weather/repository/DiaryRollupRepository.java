@@ -0,0 +1,129 @@
+package zb.weather.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import zb.weather.domain.Diary;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 날짜, 날씨별 일기 수와 기온 합(diary_rollup). 일기를 쓰는 트랜잭션 안에서 불러야 diary 와 어긋나지 않는다.
+ * 날씨가 없는 일기는 빈 문자열로 묶는다.
+ */
+@Repository
+public class DiaryRollupRepository {
+    private static final String ADD_SQL = "insert into diary_rollup(date, weather, diary_count, temperature_sum)"
+            + " values(?,?,?,?) on duplicate key update diary_count = diary_count + values(diary_count),"
+            + " temperature_sum = temperature_sum + values(temperature_sum)";
+    private static final String INSERT_FROM_DIARY_SQL =
+            "insert into diary_rollup(date, weather, diary_count, temperature_sum)"
+                    + " select date, coalesce(weather, ''), count(*), sum(temperature) from diary";
+    private static final String GROUP_BY_SQL = " group by date, coalesce(weather, '')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DiaryRollupRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 새로 저장한 일기를 더한다. 같은 행을 여러 트랜잭션이 고칠 때 잠금 순서가 엇갈리지 않도록
+     * (날짜, 날씨) 순으로 묶어서 한 JDBC 배치로 보낸다.
+     */
+    public void add(List<Diary> diaries) {
+        Map<Key, double[]> deltas = new TreeMap<>();
+        for (Diary diary : diaries) {
+            double[] delta = deltas.computeIfAbsent(new Key(diary.getDate(), weatherOf(diary)), key -> new double[2]);
+            delta[0]++;
+            delta[1] += diary.getTemperature();
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Key, double[]> entry : deltas.entrySet()) {
+            args.add(new Object[]{Date.valueOf(entry.getKey().date), entry.getKey().weather,
+                    (int) entry.getValue()[0], entry.getValue()[1]});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_SQL, args);
+        }
+    }
+
+    public void removeDate(LocalDate date) {
+        jdbcTemplate.update("delete from diary_rollup where date = ?", Date.valueOf(date));
+    }
+
+    /**
+     * date 의 집계를 diary 에서 다시 계산한다. 한 날짜 일기들의 날씨를 한꺼번에 바꾼 뒤에 쓴다.
+     * 집계에는 위치 구분이 없으므로 한 위치의 일기만 바꿨어도 그 날짜의 모든 위치 일기로 다시 센다.
+     */
+    @Transactional
+    public void refreshDate(LocalDate date) {
+        removeDate(date);
+        jdbcTemplate.update(INSERT_FROM_DIARY_SQL + " where date = ?" + GROUP_BY_SQL, Date.valueOf(date));
+    }
+
+    /**
+     * 집계 전체를 diary 에서 다시 만들고 집계 행 수를 반환한다.
+     */
+    @Timed(value = "jdbc.repository", histogram = true)
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("delete from diary_rollup");
+        return jdbcTemplate.update(INSERT_FROM_DIARY_SQL + " where date is not null" + GROUP_BY_SQL);
+    }
+
+    /**
+     * startDate ~ endDate(포함) 의 집계 행을 (날짜, 날씨) 순으로 반환한다.
+     */
+    @Timed(value = "jdbc.repository", histogram = true)
+    public List<Row> findBetween(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(
+                "select date, weather, diary_count, temperature_sum from diary_rollup"
+                        + " where date between ? and ? order by date, weather",
+                (rs, rowNum) -> new Row(rs.getDate("date").toLocalDate(), rs.getString("weather"),
+                        rs.getInt("diary_count"), rs.getDouble("temperature_sum")),
+                Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    private static String weatherOf(Diary diary) {
+        return diary.getWeather() == null ? "" : diary.getWeather();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Row {
+        private final LocalDate date;
+        private final String weather;
+        private final int diaryCount;
+        private final double temperatureSum;
+    }
+
+    private static class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER =
+                Comparator.comparing((Key key) -> key.date).thenComparing(key -> key.weather);
+        private final LocalDate date;
+        private final String weather;
+
+        Key(LocalDate date, String weather) {
+            this.date = date;
+            this.weather = weather;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
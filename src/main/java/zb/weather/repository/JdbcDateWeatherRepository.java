@@ -0,0 +1,74 @@
+package zb.weather.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import zb.weather.domain.DateWeather;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * date_weather 대량 저장. (location_id, date) 가 기본 키라 JPA saveAll 은 행마다 select 후 insert 하므로 JDBC 배치를 쓴다.
+ */
+@Repository
+public class JdbcDateWeatherRepository {
+    private static final String INSERT_IGNORE_SQL =
+            "insert ignore into date_weather(location_id, date, weather, icon, temperature) values(?,?,?,?,?)";
+    private static final String SELECT_SQL =
+            "select location_id, date, weather, icon, temperature from date_weather where location_id = ? and date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JdbcDateWeatherRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 이미 있는 (위치, 날짜)(예: 같은 시각에 돈 야간 수집이 저장한 행)는 건너뛴다.
+     */
+    @Timed(value = "jdbc.repository", histogram = true)
+    @Transactional
+    public int[] saveAllIgnoringExisting(List<DateWeather> dateWeathers) {
+        return jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DateWeather dateWeather = dateWeathers.get(i);
+                ps.setInt(1, dateWeather.getLocationId());
+                ps.setDate(2, Date.valueOf(dateWeather.getDate()));
+                ps.setString(3, dateWeather.getWeather());
+                ps.setString(4, dateWeather.getIcon());
+                ps.setDouble(5, dateWeather.getTemperature());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return dateWeathers.size();
+            }
+        });
+    }
+
+    /**
+     * saveAllIgnoringExisting 뒤에 실제로 남은 행을 읽는다. 방금 쓴 행을 봐야 하면 프라이머리에서 부른다.
+     */
+    public Optional<DateWeather> findByLocationIdAndDate(int locationId, LocalDate date) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            DateWeather dateWeather = new DateWeather();
+            dateWeather.setLocationId(rs.getInt("location_id"));
+            dateWeather.setDate(rs.getDate("date").toLocalDate());
+            dateWeather.setWeather(rs.getString("weather"));
+            dateWeather.setIcon(rs.getString("icon"));
+            dateWeather.setTemperature(rs.getDouble("temperature"));
+            return dateWeather;
+        }, locationId, Date.valueOf(date)).stream().findFirst();
+    }
+}
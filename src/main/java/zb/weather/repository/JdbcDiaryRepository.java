@@ -0,0 +1,94 @@
+package zb.weather.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import zb.weather.domain.Diary;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JPA IDENTITY 전략은 insert 를 배치로 묶을 수 없으므로 대량 저장은 JDBC 배치로 처리한다.
+ * 단일 행 VALUES 형태를 유지해야 MySQL 드라이버의 rewriteBatchedStatements 가 multi-row insert 로 바꿔 준다.
+ * 저장한 일기는 같은 트랜잭션에서 diary_rollup 에도 더한다.
+ */
+@Repository
+public class JdbcDiaryRepository {
+    private static final String INSERT_SQL =
+            "insert into diary(date, weather, icon, temperature, text, request_id, location_id) values(?,?,?,?,?,?,?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DiaryRollupRepository diaryRollupRepository;
+
+    @Autowired
+    public JdbcDiaryRepository(DataSource dataSource, DiaryRollupRepository diaryRollupRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.diaryRollupRepository = diaryRollupRepository;
+    }
+
+    /**
+     * 한 건을 저장하고 생성된 id 를 diary 에 채운다.
+     */
+    @Timed(value = "jdbc.repository", histogram = true)
+    @Transactional
+    public Diary save(Diary diary) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
+            setValues(ps, diary);
+            return ps;
+        }, keyHolder);
+        diary.setId(keyHolder.getKey().intValue());
+        diaryRollupRepository.add(Collections.singletonList(diary));
+        return diary;
+    }
+
+    /**
+     * 하나의 트랜잭션, 하나의 JDBC 배치로 저장하고 행별 영향 행 수를 반환한다.
+     */
+    @Timed(value = "jdbc.repository", histogram = true)
+    @Transactional
+    public int[] saveAll(List<Diary> diaries) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                JdbcDiaryRepository.setValues(ps, diaries.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return diaries.size();
+            }
+        });
+        List<Diary> inserted = new ArrayList<>(diaries.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                inserted.add(diaries.get(i));
+            }
+        }
+        diaryRollupRepository.add(inserted);
+        return counts;
+    }
+
+    private static void setValues(PreparedStatement ps, Diary diary) throws SQLException {
+        ps.setDate(1, Date.valueOf(diary.getDate()));
+        ps.setString(2, diary.getWeather());
+        ps.setString(3, diary.getIcon());
+        ps.setDouble(4, diary.getTemperature());
+        ps.setString(5, diary.getText());
+        ps.setString(6, diary.getRequestId());
+        ps.setInt(7, diary.getLocationId());
+    }
+}
@@ -0,0 +1,18 @@
+package zb.weather.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import zb.weather.domain.Location;
+
+import java.util.List;
+
+@Repository
+public interface LocationRepository extends JpaRepository<Location, Integer> {
+    /**
+     * id 를 shardCount 로 나눈 나머지가 shardIndex 인 위치. 인스턴스마다 다른 shardIndex 로 나누어 모은다.
+     */
+    @Query("select l from Location l where mod(l.id, :shardCount) = :shardIndex order by l.id")
+    List<Location> findShard(@Param("shardCount") int shardCount, @Param("shardIndex") int shardIndex);
+}
@@ -0,0 +1,327 @@
+package zb.weather.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import zb.weather.domain.Diary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 일기 본문의 역색인. 토큰마다 일기 id 를 정렬된 int 배열로 들고, 검색어 토큰의 목록을 교집합한 뒤
+ * 날짜 범위와 날씨로 거른다. 토큰은 DiaryTokenizer 의 n-gram 이라 결과는 후보이며,
+ * 본문에 검색어가 실제로 들어 있는지는 호출하는 쪽에서 확인한다.
+ *
+ * 재구성(beginRebuild ~ finishRebuild) 중에도 검색은 기존 색인으로 계속 응답하고, 그 사이 들어온 변경은
+ * 새 색인에도 반영한다. 재구성 중 바뀐 날짜는 스트림에서 읽은 (이전일 수 있는) 행으로 덮어쓰지 않는다.
+ */
+@Component
+public class DiarySearchIndex implements MeterBinder {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment current = new Segment();
+    private Segment pending;
+
+    public void add(Diary diary) {
+        lock.writeLock().lock();
+        try {
+            current.put(diary.getId(), diary.getDate(), diary.getWeather(), diary.getText());
+            if (pending != null) {
+                pending.put(diary.getId(), diary.getDate(), diary.getWeather(), diary.getText());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * date 의 색인을 diaries 로 통째로 바꾼다.
+     */
+    public void replaceDate(LocalDate date, List<Diary> diaries) {
+        lock.writeLock().lock();
+        try {
+            replaceDate(current, date, diaries);
+            if (pending != null) {
+                replaceDate(pending, date, diaries);
+                pending.touchedDates.add(date);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDate(LocalDate date) {
+        replaceDate(date, Collections.emptyList());
+    }
+
+    public void updateWeather(LocalDate date, String weather) {
+        lock.writeLock().lock();
+        try {
+            current.updateWeather(date, weather);
+            if (pending != null) {
+                pending.updateWeather(date, weather);
+                pending.weatherOverrides.put(date, weather);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new Segment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuildAdd(Diary diary) {
+        lock.writeLock().lock();
+        try {
+            if (pending == null || pending.touchedDates.contains(diary.getDate())) {
+                return;
+            }
+            String weather = pending.weatherOverrides.getOrDefault(diary.getDate(), diary.getWeather());
+            pending.put(diary.getId(), diary.getDate(), weather, diary.getText());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 재구성한 색인으로 바꾸고 문서 수를 반환한다. completed 가 false 면 버리고 기존 색인을 유지한다.
+     */
+    public int finishRebuild(boolean completed) {
+        lock.writeLock().lock();
+        try {
+            if (completed && pending != null) {
+                pending.touchedDates.clear();
+                pending.weatherOverrides.clear();
+                current = pending;
+            }
+            pending = null;
+            return current.docs.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 검색어의 모든 토큰을 가진 일기 중 날짜 범위와 날씨(대소문자 무시, null 이면 전체)에 맞는 id 를
+     * (날짜, id) 순으로 반환한다.
+     */
+    public List<Integer> search(String query, LocalDate startDate, LocalDate endDate, String weather) {
+        Set<String> tokens = DiaryTokenizer.queryTokens(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                PostingList list = current.postings.get(token);
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            int[] ids = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            int size = ids.length;
+            for (int i = 1; i < lists.size() && size > 0; i++) {
+                size = lists.get(i).retainIn(ids, size);
+            }
+
+            List<Doc> matched = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Doc doc = current.docs.get(ids[i]);
+                if ((startDate == null || !doc.date.isBefore(startDate))
+                        && (endDate == null || !doc.date.isAfter(endDate))
+                        && (weather == null || weather.equalsIgnoreCase(doc.weather))) {
+                    matched.add(doc);
+                }
+            }
+            matched.sort(Comparator.comparing((Doc doc) -> doc.date).thenComparingInt(doc -> doc.id));
+            List<Integer> result = new ArrayList<>(matched.size());
+            for (Doc doc : matched) {
+                result.add(doc.id);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return current.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return current.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("diary.search.documents", this, DiarySearchIndex::documentCount)
+                .register(registry);
+        Gauge.builder("diary.search.tokens", this, DiarySearchIndex::tokenCount)
+                .register(registry);
+    }
+
+    private static void replaceDate(Segment segment, LocalDate date, List<Diary> diaries) {
+        segment.removeDate(date);
+        for (Diary diary : diaries) {
+            segment.put(diary.getId(), diary.getDate(), diary.getWeather(), diary.getText());
+        }
+    }
+
+    private static class Segment {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<Integer, Doc> docs = new HashMap<>();
+        private final Map<LocalDate, Set<Integer>> idsByDate = new HashMap<>();
+        private final Set<LocalDate> touchedDates = new HashSet<>();
+        private final Map<LocalDate, String> weatherOverrides = new HashMap<>();
+
+        void put(int id, LocalDate date, String weather, String text) {
+            remove(id);
+            Set<String> tokens = DiaryTokenizer.indexTokens(text);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new PostingList()).add(id);
+            }
+            docs.put(id, new Doc(id, date, weather, tokens.toArray(new String[0])));
+            idsByDate.computeIfAbsent(date, d -> new HashSet<>()).add(id);
+        }
+
+        void remove(int id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String token : doc.tokens) {
+                PostingList list = postings.get(token);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(token);
+                }
+            }
+            Set<Integer> ids = idsByDate.get(doc.date);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    idsByDate.remove(doc.date);
+                }
+            }
+        }
+
+        void removeDate(LocalDate date) {
+            Set<Integer> ids = idsByDate.get(date);
+            if (ids != null) {
+                for (Integer id : new ArrayList<>(ids)) {
+                    remove(id);
+                }
+            }
+        }
+
+        void updateWeather(LocalDate date, String weather) {
+            Set<Integer> ids = idsByDate.get(date);
+            if (ids != null) {
+                for (Integer id : ids) {
+                    docs.get(id).weather = weather;
+                }
+            }
+        }
+    }
+
+    private static class Doc {
+        private final int id;
+        private final LocalDate date;
+        private String weather;
+        private final String[] tokens;
+
+        Doc(int id, LocalDate date, String weather, String[] tokens) {
+            this.id = id;
+            this.date = date;
+            this.weather = weather;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * 오름차순 int 배열. 새 일기 id 는 대개 가장 크므로 add 는 보통 끝에 붙인다.
+     */
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            grow();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * candidates[0..count) 중 이 목록에도 있는 id 만 앞으로 모으고 그 개수를 반환한다.
+         */
+        int retainIn(int[] candidates, int count) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < count && j < size; i++) {
+                int candidate = candidates[i];
+                while (j < size && ids[j] < candidate) {
+                    j++;
+                }
+                if (j < size && ids[j] == candidate) {
+                    candidates[kept++] = candidate;
+                }
+            }
+            return kept;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
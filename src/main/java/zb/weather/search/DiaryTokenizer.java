@@ -0,0 +1,102 @@
+package zb.weather.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 일기 본문을 색인 토큰으로 나눈다.
+ * 한글(과 한자, 가나)은 형태소 분석 대신 글자 단위 1-gram 과 2-gram 을 만든다. 조사가 붙어도
+ * "비가" 와 "비를" 이 "비" 로 만나고, 두 글자 이상의 검색어는 2-gram 으로 좁혀진다.
+ * 영문과 숫자는 소문자로 바꾼 단어 하나를 토큰으로 쓴다.
+ */
+public final class DiaryTokenizer {
+    private DiaryTokenizer() {
+    }
+
+    /**
+     * 색인용 토큰. 한글 구간마다 모든 1-gram 과 2-gram 을 낸다.
+     */
+    public static Set<String> indexTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokenize(text, tokens, Mode.INDEX);
+        return tokens;
+    }
+
+    /**
+     * 검색용 토큰. 한 글자 한글 구간은 1-gram, 두 글자 이상은 2-gram 만 내서 모두 포함한 문서를 찾는다.
+     */
+    public static Set<String> queryTokens(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokenize(query, tokens, Mode.QUERY);
+        return tokens;
+    }
+
+    /**
+     * 본문에 그대로 들어 있어야 하는 검색어 조각. 토큰과 같은 기준으로 나누고 소문자로 바꾸되, 한글 구간은 자르지 않는다.
+     * 문장 부호는 버리므로 "rain!" 은 "rain", "비," 는 "비" 가 된다.
+     */
+    public static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, terms, Mode.TERMS);
+        return terms;
+    }
+
+    private static void tokenize(String text, Set<String> tokens, Mode mode) {
+        if (text == null) {
+            return;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            char c = normalized.charAt(i);
+            if (isCjk(c)) {
+                int end = i;
+                while (end < length && isCjk(normalized.charAt(end))) {
+                    end++;
+                }
+                if (mode == Mode.TERMS) {
+                    tokens.add(normalized.substring(i, end));
+                } else {
+                    addGrams(normalized, i, end, tokens, mode == Mode.INDEX);
+                }
+                i = end;
+            } else if (Character.isLetterOrDigit(c)) {
+                int end = i;
+                while (end < length && Character.isLetterOrDigit(normalized.charAt(end)) && !isCjk(normalized.charAt(end))) {
+                    end++;
+                }
+                tokens.add(normalized.substring(i, end));
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void addGrams(String text, int start, int end, Set<String> tokens, boolean forIndex) {
+        if (end - start == 1 || forIndex) {
+            for (int i = start; i < end; i++) {
+                tokens.add(text.substring(i, i + 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private enum Mode {
+        INDEX, QUERY, TERMS
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.HANGUL_SYLLABLES
+                || block == Character.UnicodeBlock.HANGUL_JAMO
+                || block == Character.UnicodeBlock.HANGUL_COMPATIBILITY_JAMO
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA;
+    }
+}
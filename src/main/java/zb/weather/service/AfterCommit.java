@@ -0,0 +1,26 @@
+package zb.weather.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 진행 중인 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 실행한다.
+ * 메모리에 둔 파생 상태(버전, 검색 색인)를 DB 보다 먼저 바꾸지 않기 위해 쓴다.
+ */
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
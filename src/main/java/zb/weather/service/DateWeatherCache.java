@@ -0,0 +1,119 @@
+package zb.weather.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import zb.weather.domain.DateWeather;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 날짜별 DateWeather 를 메모리에 보관하는 캐시.
+ * 같은 날짜에 대한 동시 miss 는 하나의 로딩(DB 조회 또는 API 호출)만 수행하고 결과를 공유한다.
+ * stale 로 표시된 값은 stale-ttl 이 지나면 만료되어 다시 로딩된다.
+ * 외부 API 장애 때 대신 쓸 값으로, 지금까지 들어온 stale 이 아닌 값 중 가장 최근 날짜의 것을 따로 들고 있는다.
+ */
+@Component
+public class DateWeatherCache implements MeterBinder {
+    private final Cache<LocalDate, DateWeather> cache;
+    private final AtomicReference<DateWeather> latest = new AtomicReference<>();
+
+    public DateWeatherCache(@Value("${weather.cache.max-size:1000}") long maxSize,
+                            @Value("${weather.cache.expire-after-write:6h}") Duration expireAfterWrite,
+                            @Value("${weather.cache.stale-ttl:30s}") Duration staleTtl) {
+        long freshNanos = expireAfterWrite.toNanos();
+        long staleNanos = staleTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<LocalDate, DateWeather>() {
+                    @Override
+                    public long expireAfterCreate(LocalDate date, DateWeather dateWeather, long currentTime) {
+                        return dateWeather.isStale() ? staleNanos : freshNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(LocalDate date, DateWeather dateWeather, long currentTime,
+                                                  long currentDuration) {
+                        return dateWeather.isStale() ? staleNanos : freshNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(LocalDate date, DateWeather dateWeather, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 캐시에 없으면 loader 로 불러온다. loader 가 null 을 반환하면 캐시하지 않는다.
+     */
+    public DateWeather get(LocalDate date, Function<LocalDate, DateWeather> loader) {
+        return cache.get(date, key -> {
+            DateWeather dateWeather = loader.apply(key);
+            if (dateWeather != null) {
+                updateLatest(dateWeather);
+            }
+            return dateWeather;
+        });
+    }
+
+    public DateWeather getIfPresent(LocalDate date) {
+        return cache.getIfPresent(date);
+    }
+
+    /**
+     * 지금까지 캐시에 들어온 stale 이 아닌 값 중 가장 최근 날짜의 날씨. 캐시에서 밀려났더라도 유지한다. 없으면 null.
+     */
+    public DateWeather getLatest() {
+        return latest.get();
+    }
+
+    public void put(DateWeather dateWeather) {
+        cache.put(dateWeather.getDate(), dateWeather);
+        updateLatest(dateWeather);
+    }
+
+    /**
+     * 다른 곳에서 바뀐 날짜가 가장 최근 값이면 그 값도 버린다. 다음 장애 때는 호출하는 쪽이 DB 에서 다시 찾는다.
+     */
+    public void evict(LocalDate date) {
+        cache.invalidate(date);
+        latest.updateAndGet(current -> current != null && current.getDate().equals(date) ? null : current);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * hit / miss / 로딩 시간 누적 통계.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private void updateLatest(DateWeather dateWeather) {
+        if (dateWeather.isStale() || dateWeather.getDate() == null) {
+            return;
+        }
+        latest.accumulateAndGet(dateWeather, (current, candidate) ->
+                current == null || !candidate.getDate().isBefore(current.getDate()) ? candidate : current);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "dateWeather");
+    }
+}
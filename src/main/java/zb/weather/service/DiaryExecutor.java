@@ -0,0 +1,86 @@
+package zb.weather.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 날씨 조회가 필요한 일기 요청을 어디서 실행할지 정한다.
+ * blocking(기본값)이면 요청 스레드에서 바로 실행하고, async 면 별도 풀에서 실행해
+ * 외부 API 를 기다리는 동안 Tomcat 워커를 돌려준다.
+ * 풀과 대기열이 모두 차면 RejectedExecutionException 으로 끝난 future 를 반환한다.
+ */
+@Component
+public class DiaryExecutor implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+
+    public DiaryExecutor(@Value("${diary.execution.mode:blocking}") String mode,
+                         @Value("${diary.execution.pool-size:200}") int poolSize,
+                         @Value("${diary.execution.queue-capacity:1000}") int queueCapacity) {
+        if ("async".equals(mode)) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    r -> new Thread(r, "diary-exec-" + threadCount.incrementAndGet()));
+            this.executor.allowCoreThreadTimeOut(true);
+            logger.info("diary execution mode: async, pool size {}", poolSize);
+        } else if ("blocking".equals(mode)) {
+            this.executor = null;
+        } else {
+            throw new IllegalArgumentException("Unknown diary.execution.mode: " + mode);
+        }
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        if (executor == null) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (executor != null) {
+            new ExecutorServiceMetrics(executor, "diary.executor", Collections.emptyList()).bindTo(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
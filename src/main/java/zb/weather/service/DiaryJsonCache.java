@@ -0,0 +1,151 @@
+package zb.weather.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 일기 조회 결과를 직렬화된 JSON 바이트로 보관한다. 키는 날짜 또는 기간이고,
+ * 값에는 만들 때의 DiaryVersions 버전을 함께 둔다. 요청한 버전과 다르면 miss 로 보고 다시 만들기 때문에
+ * DiaryService 의 쓰기가 버전을 올리는 순간 그 날짜를 포함한 키만 정확히 무효화된다.
+ * gzip-min-size 이상인 JSON 은 저장할 때 gzip 본도 한 번 만들어 두어 요청마다 다시 압축하지 않는다.
+ * 전체 크기(JSON 과 gzip 합계)는 max-size 바이트로 제한한다.
+ */
+@Component
+public class DiaryJsonCache implements MeterBinder {
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+    private final Cache<String, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public DiaryJsonCache(ObjectMapper objectMapper,
+                          @Value("${diary.json-cache.max-size:64MB}") DataSize maxSize,
+                          @Value("${diary.http.gzip-min-size:1KB}") DataSize gzipMinSize) {
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.json.length
+                        + (entry.gzip == null ? 0 : entry.gzip.length))
+                .build();
+    }
+
+    /**
+     * key 에 seq 버전의 JSON 이 있으면 그대로 반환하고, 없으면 loader 결과를 직렬화해 저장한 뒤 반환한다.
+     */
+    public Entry get(String key, long seq, Supplier<?> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.seq == seq) {
+            hits.increment();
+            bytesSaved.add(entry.json.length);
+            return entry;
+        }
+        misses.increment();
+        byte[] json = serialize(loader.get());
+        Entry loaded = new Entry(seq, json, json.length >= gzipMinSize ? gzip(json) : null);
+        cache.asMap().merge(key, loaded, (current, candidate) -> current.seq > candidate.seq ? current : candidate);
+        return loaded;
+    }
+
+    public static String dateKey(LocalDate date) {
+        return "d:" + date;
+    }
+
+    public static String rangeKey(LocalDate startDate, LocalDate endDate) {
+        return "r:" + startDate + ":" + endDate;
+    }
+
+    public static String groupedKey(String key) {
+        return key + ":g";
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long bytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize diaries", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("diary.json.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("diary.json.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("diary.json.cache.saved", bytesSaved, LongAdder::sum)
+                .description("캐시 hit 으로 다시 만들지 않은 JSON 바이트 수")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("diary.json.cache.hit.ratio", this, DiaryJsonCache::hitRatio)
+                .register(registry);
+        Gauge.builder("diary.json.cache.size", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public static class Entry {
+        private final long seq;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Entry(long seq, byte[] json, byte[] gzip) {
+            this.seq = seq;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * gzip 으로 압축한 JSON. 원본이 gzip-min-size 보다 작으면 null.
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -1,93 +1,344 @@
 package zb.weather.service;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import zb.weather.WeatherApplication;
+import zb.weather.datasource.ReplicaRoutingDataSource;
 import zb.weather.domain.DateWeather;
 import zb.weather.domain.Diary;
+import zb.weather.domain.Location;
+import zb.weather.dto.BulkCreateResult;
+import zb.weather.dto.DiaryCursor;
+import zb.weather.dto.DiaryPage;
+import zb.weather.dto.DiaryRequest;
 import zb.weather.error.InvalidDate;
+import zb.weather.ingest.DiaryWriteLog;
 import zb.weather.repository.DateWeatherRepository;
 import zb.weather.repository.DiaryRepository;
+import zb.weather.repository.DiaryRollupRepository;
+import zb.weather.repository.JdbcDiaryRepository;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.search.DiaryTokenizer;
 
+import javax.persistence.EntityManager;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class DiaryService {
     @Value("${openweathermap.key}")
     private String apiKey;
+    @Value("${diary.bulk.batch-size:1000}")
+    private int bulkBatchSize;
     private final DiaryRepository diaryRepository;
+    private final JdbcDiaryRepository jdbcDiaryRepository;
+    private final DiaryRollupRepository diaryRollupRepository;
     private final WeatherApiClient weatherApiClient;
+    private final WeatherResponseParser weatherResponseParser;
     private final DateWeatherRepository dateWeatherRepository;
+    private final DateWeatherCache dateWeatherCache;
+    private final StaleWeatherRefresher staleWeatherRefresher;
+    private final DiaryVersions diaryVersions;
+    private final DiarySearchIndex diarySearchIndex;
+    private final EntityManager entityManager;
     private static final Logger logger = LoggerFactory.getLogger(WeatherApplication.class);
 
-    public DiaryService(DiaryRepository diaryRepository, WeatherApiClient weatherApiClient, DateWeatherRepository dateWeatherRepository) {
+    public DiaryService(DiaryRepository diaryRepository, JdbcDiaryRepository jdbcDiaryRepository,
+                        DiaryRollupRepository diaryRollupRepository,
+                        WeatherApiClient weatherApiClient,
+                        WeatherResponseParser weatherResponseParser,
+                        DateWeatherRepository dateWeatherRepository, DateWeatherCache dateWeatherCache,
+                        StaleWeatherRefresher staleWeatherRefresher, DiaryVersions diaryVersions,
+                        DiarySearchIndex diarySearchIndex,
+                        EntityManager entityManager) {
         this.diaryRepository = diaryRepository;
+        this.jdbcDiaryRepository = jdbcDiaryRepository;
+        this.diaryRollupRepository = diaryRollupRepository;
         this.weatherApiClient = weatherApiClient;
+        this.weatherResponseParser = weatherResponseParser;
         this.dateWeatherRepository = dateWeatherRepository;
-    }
-
-    @Transactional
-    @Scheduled(cron = "0 0 1 * * *")
-    public void saveWeatherDate () {
-        try {
-            dateWeatherRepository.save(getWeatherFromApi());
-            logger.info("saved weather data");
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to saved weather data");
-        }
+        this.dateWeatherCache = dateWeatherCache;
+        this.staleWeatherRefresher = staleWeatherRefresher;
+        this.diaryVersions = diaryVersions;
+        this.diarySearchIndex = diarySearchIndex;
+        this.entityManager = entityManager;
     }
 
     private DateWeather getWeatherFromApi() {
         logger.info("Fetching weather data from API");
         String weatherData = weatherApiClient.getWeatherData();
-        Map<String, Object> parsedWeather = parseWeather(weatherData);
-
-        DateWeather dateWeather = new DateWeather();
+        DateWeather dateWeather = weatherResponseParser.parse(weatherData);
+        if (dateWeather == null) {
+            throw new IllegalStateException("Failed to parse weather data");
+        }
         dateWeather.setDate(LocalDate.now());
-        dateWeather.setWeather(parsedWeather.get("main").toString());
-        dateWeather.setIcon(parsedWeather.get("icon").toString());
-        dateWeather.setTemperature((Double) parsedWeather.get("temp"));
         return dateWeather;
     }
 
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void createDiary(LocalDate date, String text) {
+    /**
+     * 날씨 조회(캐시, DB 또는 외부 API)는 트랜잭션 밖에서 끝내고, insert 와 집계 갱신만 기본 격리 수준의 짧은 트랜잭션으로 실행한다.
+     * requestId 가 같은 요청은 unique 제약으로 한 번만 저장되며, 이미 저장된 경우 false 를 반환한다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean createDiary(LocalDate date, String text, String requestId) {
         try {
             DateWeather dateWeather = getDateWeather(date);
             if (dateWeather == null) {
                 throw new IllegalArgumentException("Failed to parse weather data");
             }
             Diary nowDiary = buildDiary(date, text, dateWeather);
-            diaryRepository.save(nowDiary);
-            logger.info("finished to create diary");
+            nowDiary.setRequestId(requestId);
+            jdbcDiaryRepository.save(nowDiary);
+            diaryVersions.bumpAfterCommit(date);
+            diarySearchIndex.add(nowDiary);
+            logger.debug("finished to create diary");
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (requestId != null && createdOnPrimary(requestId)) {
+                logger.info("diary already created for request {}", requestId);
+                return false;
+            }
+            logger.error("failed to createDiary: ", e);
+            throw new RuntimeException("Failed to parse createDiary", e);
         } catch (Exception e) {
             logger.error("failed to createDiary: ", e);
             throw new RuntimeException("Failed to parse createDiary", e);
         }
     }
 
+    /**
+     * 같은 요청 키로 먼저 커밋된 일기가 아직 복제본에 없을 수 있으므로 프라이머리에서 확인한다.
+     */
+    private boolean createdOnPrimary(String requestId) {
+        try (ReplicaRoutingDataSource.Scope ignored = ReplicaRoutingDataSource.primaryOnly()) {
+            return diaryRepository.existsByRequestId(requestId);
+        }
+    }
+
+    /**
+     * 여러 일기를 한 번에 저장한다. 날짜별 날씨는 한 번만 조회하고, 저장은 batch-size 단위 JDBC 배치로
+     * 나누어 각 배치를 별도 트랜잭션으로 커밋한다. 실패한 항목은 나머지 항목 저장을 막지 않는다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkCreateResult createDiaries(List<DiaryRequest> requests) {
+        long start = System.nanoTime();
+        BulkCreateResult.Item[] items = new BulkCreateResult.Item[requests.size()];
+        Map<LocalDate, DateWeather> weathers = new HashMap<>();
+        Set<LocalDate> savedDates = new HashSet<>();
+        List<Diary> batch = new ArrayList<>(bulkBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(bulkBatchSize);
+
+        for (int i = 0; i < requests.size(); i++) {
+            DiaryRequest request = requests.get(i);
+            if (request == null || request.getDate() == null || request.getText() == null) {
+                items[i] = BulkCreateResult.Item.failed(i, "date and text are required");
+                continue;
+            }
+            LocalDate date = request.getDate();
+            if (!weathers.containsKey(date)) {
+                weathers.put(date, findDateWeather(date));
+            }
+            DateWeather dateWeather = weathers.get(date);
+            if (dateWeather == null) {
+                items[i] = BulkCreateResult.Item.failed(i, "Failed to parse weather data");
+                continue;
+            }
+            batch.add(buildDiary(date, request.getText(), dateWeather));
+            batchIndexes.add(i);
+            if (batch.size() == bulkBatchSize) {
+                saveBatch(batch, batchIndexes, items, savedDates);
+            }
+        }
+        saveBatch(batch, batchIndexes, items, savedDates);
+        reindexDates(savedDates);
+
+        BulkCreateResult result = new BulkCreateResult(Arrays.asList(items), System.nanoTime() - start);
+        logger.info("finished to create diaries: created={}, failed={}, {}ms",
+                result.getCreated(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * write-behind 로그에서 꺼낸 일기를 한 트랜잭션, 하나의 JDBC 배치로 저장하고 날씨를 구하지 못해 저장하지 못한 일기를 반환한다.
+     * 재기동 후 다시 꺼낸 일기는 요청 키 unique 제약에 걸리므로, 배치가 실패하면 한 건씩 넣으며 그런 일기는 건너뛴다.
+     * 날씨를 구하지 못한 일기만 빼고 나머지는 저장하므로, 호출한 쪽은 돌려받은 일기만 다시 시도하면 된다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<DiaryWriteLog.Entry> saveLoggedDiaries(List<DiaryWriteLog.Entry> entries) {
+        Map<LocalDate, DateWeather> weathers = new HashMap<>();
+        List<Diary> diaries = new ArrayList<>(entries.size());
+        List<DiaryWriteLog.Entry> failed = new ArrayList<>();
+        for (DiaryWriteLog.Entry entry : entries) {
+            if (!weathers.containsKey(entry.getDate())) {
+                weathers.put(entry.getDate(), findDateWeather(entry.getDate()));
+            }
+            DateWeather dateWeather = weathers.get(entry.getDate());
+            if (dateWeather == null) {
+                failed.add(entry);
+                continue;
+            }
+            Diary diary = buildDiary(entry.getDate(), entry.getText(), dateWeather);
+            diary.setRequestId(entry.getRequestId());
+            diaries.add(diary);
+        }
+
+        int saved = diaries.size();
+        Set<LocalDate> savedDates = new HashSet<>();
+        for (Diary diary : diaries) {
+            savedDates.add(diary.getDate());
+        }
+        try {
+            jdbcDiaryRepository.saveAll(diaries);
+        } catch (DataIntegrityViolationException e) {
+            saved = 0;
+            savedDates.clear();
+            for (Diary diary : diaries) {
+                try {
+                    jdbcDiaryRepository.saveAll(Collections.singletonList(diary));
+                    saved++;
+                    savedDates.add(diary.getDate());
+                } catch (DuplicateKeyException duplicate) {
+                    logger.info("diary already created for request {}", diary.getRequestId());
+                } catch (DataIntegrityViolationException invalid) {
+                    logger.error("skipped invalid diary for request {}: ", diary.getRequestId(), invalid);
+                }
+            }
+        }
+        reindexDates(savedDates);
+        logger.debug("finished to save {} logged diaries, {} without weather", saved, failed.size());
+        return failed;
+    }
+
+    /**
+     * 일기를 새로 저장한 날짜의 버전을 올리고 색인을 다시 만든다. JDBC 배치는 생성된 id 를 돌려주지 않으므로
+     * 날짜 단위로 다시 읽는데, 방금 커밋한 행이 아직 복제본에 없을 수 있어 프라이머리에서 읽는다.
+     */
+    private void reindexDates(Set<LocalDate> dates) {
+        try (ReplicaRoutingDataSource.Scope ignored = ReplicaRoutingDataSource.primaryOnly()) {
+            for (LocalDate date : dates) {
+                diaryVersions.bumpAfterCommit(date);
+                diarySearchIndex.replaceDate(date, diaryRepository.findAllByDate(date));
+            }
+        }
+    }
+
+    private DateWeather findDateWeather(LocalDate date) {
+        try {
+            return getDateWeather(date);
+        } catch (Exception e) {
+            logger.error("failed to get weather for {}: ", date, e);
+            return null;
+        }
+    }
+
+    private void saveBatch(List<Diary> batch, List<Integer> batchIndexes, BulkCreateResult.Item[] items,
+                           Set<LocalDate> savedDates) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = jdbcDiaryRepository.saveAll(batch);
+            for (int j = 0; j < counts.length; j++) {
+                int index = batchIndexes.get(j);
+                boolean inserted = counts[j] > 0 || counts[j] == Statement.SUCCESS_NO_INFO;
+                items[index] = inserted
+                        ? BulkCreateResult.Item.created(index)
+                        : BulkCreateResult.Item.failed(index, "Diary was not inserted");
+                if (inserted) {
+                    savedDates.add(batch.get(j).getDate());
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.error("failed to save diary batch: ", e);
+            for (int index : batchIndexes) {
+                items[index] = BulkCreateResult.Item.failed(index, "Failed to save diary batch");
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
     private DateWeather getDateWeather(LocalDate date) {
-        List<DateWeather> dateWeatherListFromDB = dateWeatherRepository.findByDate(date);
-        if (dateWeatherListFromDB.isEmpty()) {
-            return getWeatherFromApi();
-        } else {
-            return dateWeatherListFromDB.get(0);
+        return dateWeatherCache.get(date, this::loadDateWeather);
+    }
+
+    private DateWeather loadDateWeather(LocalDate date) {
+        Optional<DateWeather> dateWeatherFromDB = dateWeatherRepository.findByLocationIdAndDate(Location.DEFAULT_ID, date);
+        if (dateWeatherFromDB.isPresent()) {
+            return dateWeatherFromDB.get();
+        }
+        try {
+            return fetchDateWeather(date);
+        } catch (RuntimeException e) {
+            return staleDateWeather(date, e);
+        }
+    }
+
+    private DateWeather fetchDateWeather(LocalDate date) {
+        if (date.isBefore(LocalDate.now())) {
+            return getHistoricalWeatherFromApi(date);
         }
+        return getWeatherFromApi();
     }
 
+    /**
+     * 외부 API 를 쓸 수 없을 때 가장 최근에 알던 날씨를 stale 로 표시해 대신 쓰고, 백그라운드 갱신을 건다.
+     * 알던 날씨가 하나도 없으면 원래 예외를 그대로 던진다.
+     */
+    private DateWeather staleDateWeather(LocalDate date, RuntimeException cause) {
+        DateWeather latest = dateWeatherCache.getLatest();
+        if (latest == null) {
+            latest = dateWeatherRepository.findFirstByLocationIdOrderByDateDesc(Location.DEFAULT_ID).orElseThrow(() -> cause);
+        }
+        DateWeather stale = new DateWeather();
+        stale.setDate(date);
+        stale.setWeather(latest.getWeather());
+        stale.setIcon(latest.getIcon());
+        stale.setTemperature(latest.getTemperature());
+        stale.setStale(true);
+        logger.warn("weather unavailable for {}, serving stale weather from {}", date, latest.getDate());
+        staleWeatherRefresher.refresh(date, this::fetchDateWeather);
+        return stale;
+    }
+
+    private DateWeather getHistoricalWeatherFromApi(LocalDate date) {
+        logger.info("Fetching historical weather data from API for {}", date);
+        DateWeather dateWeather = weatherResponseParser.parseHistorical(weatherApiClient.getHistoricalWeatherData(date));
+        if (dateWeather == null) {
+            throw new IllegalStateException("Failed to parse weather data");
+        }
+        dateWeather.setDate(date);
+        return dateWeather;
+    }
+
+    @Timed(value = "diary.service", histogram = true)
     @Transactional(readOnly = true)
     public List<Diary> readDiary(LocalDate date) {
         if (date.isAfter(LocalDate.ofYearDay(2222, 1))) {
@@ -96,74 +347,143 @@ public class DiaryService {
         return diaryRepository.findAllByDate(date);
     }
 
+    @Timed(value = "diary.service", histogram = true)
     @Transactional(readOnly = true)
     public List<Diary> readDiaries(LocalDate startDate, LocalDate endDate) {
         return diaryRepository.findAllByDateBetween(startDate, endDate);
     }
 
-    @Transactional
-    public void updateDiary(LocalDate date, String text) {
-        try {
-            Diary nowDiary = diaryRepository.getFirstByDate(date);
-            if (nowDiary == null) {
-                throw new IllegalArgumentException("Failed to parse weather data");
-            }
-            nowDiary.setText(text);
-            diaryRepository.save(nowDiary);
-            logger.info("finished to update diary");
-        } catch (Exception e) {
-            logger.error("failed to update diary: ", e);
+    /**
+     * (date, id) 키셋 기준으로 cursor 다음부터 최대 size 개의 일기를 읽는다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(readOnly = true)
+    public DiaryPage readDiariesPage(LocalDate startDate, LocalDate endDate, DiaryCursor cursor, int size) {
+        DiaryCursor after = cursor == null ? DiaryCursor.first(startDate) : cursor;
+        List<Diary> diaries = diaryRepository.findPageAfter(
+                startDate, endDate, after.getDate(), after.getId(), PageRequest.of(0, size + 1));
+        if (diaries.size() <= size) {
+            return new DiaryPage(diaries, null);
         }
+        List<Diary> page = diaries.subList(0, size);
+        return new DiaryPage(page, DiaryCursor.after(page.get(size - 1)));
     }
 
-    @Transactional
-    public void deleteDiary(LocalDate date) {
-        try {
-            List<Diary> diaries = diaryRepository.findAllByDate(date);
-            if (diaries.isEmpty()) {
-                throw new IllegalArgumentException("No diaries found for the specified date");
-            }
-            diaryRepository.deleteAllByDate(date);
-            logger.info("finished to delete diary");
-        } catch (Exception e) {
-            logger.error("failed to delete diary: ", e);
+    /**
+     * 기간 내 일기를 하나씩 consumer 에 넘긴다. 넘긴 엔티티는 바로 영속성 컨텍스트에서 분리하므로
+     * 기간이 길어도 메모리 사용량이 일정하다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(readOnly = true)
+    public void streamDiaries(LocalDate startDate, LocalDate endDate, Consumer<Diary> consumer) {
+        try (Stream<Diary> diaries = diaryRepository.streamAllByDateBetween(startDate, endDate)) {
+            diaries.forEach(diary -> {
+                consumer.accept(diary);
+                entityManager.detach(diary);
+            });
         }
-
     }
 
-    private Map<String, Object> parseWeather(String jsonString) {
-        if (jsonString == null || jsonString.isEmpty()) {
-            return null;
+    /**
+     * 본문에 query 가 들어 있는 일기를 (날짜, id) 순으로 최대 limit 개 찾는다.
+     * 색인에서 후보 id 를 얻은 뒤 limit 개씩 읽어 본문에 검색어의 각 단어가 실제로 있는지 확인한다.
+     * 단어는 색인과 같은 기준(DiaryTokenizer.queryTerms)으로 나눠 문장 부호가 붙은 검색어도 찾는다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional(readOnly = true)
+    public List<Diary> searchDiaries(String query, LocalDate startDate, LocalDate endDate, String weather, int limit) {
+        List<Integer> candidates = diarySearchIndex.search(query, startDate, endDate, weather);
+        Set<String> terms = DiaryTokenizer.queryTerms(query);
+        List<Diary> found = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int from = 0; from < candidates.size() && found.size() < limit; from += limit) {
+            List<Integer> chunk = candidates.subList(from, Math.min(from + limit, candidates.size()));
+            Map<Integer, Diary> byId = new HashMap<>();
+            for (Diary diary : diaryRepository.findAllById(chunk)) {
+                byId.put(diary.getId(), diary);
+            }
+            for (Integer id : chunk) {
+                Diary diary = byId.get(id);
+                if (diary != null && containsAll(diary.getText(), terms) && found.size() < limit) {
+                    found.add(diary);
+                }
+            }
         }
+        return found;
+    }
 
-        JSONParser jsonParser = new JSONParser();
-        JSONObject jsonObject;
+    private static boolean containsAll(String text, Set<String> terms) {
+        if (text == null) {
+            return false;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            if (!normalized.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * 검색 색인을 diary 테이블 전체로 다시 만든다. 기동이 끝나면 한 번 실행된다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int rebuildSearchIndex() {
+        long start = System.nanoTime();
+        diarySearchIndex.beginRebuild();
+        boolean completed = false;
         try {
-            jsonObject = (JSONObject) jsonParser.parse(jsonString);
-        } catch (ParseException e) {
-            throw new RuntimeException("Error parsing weather data", e);
+            streamDiaries(LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31), diarySearchIndex::rebuildAdd);
+            completed = true;
+        } finally {
+            int documents = diarySearchIndex.finishRebuild(completed);
+            logger.info("diary search index rebuild {}: {} diaries in {}ms", completed ? "completed" : "failed",
+                    documents, (System.nanoTime() - start) / 1_000_000);
         }
+        return diarySearchIndex.documentCount();
+    }
 
-        Map<String, Object> resultMap = new HashMap<>();
-        JSONObject mainData = (JSONObject) jsonObject.get("main");
-
-        if (mainData != null) {
-            resultMap.put("temp", mainData.get("temp"));
+    /**
+     * 엔티티를 읽지 않고 UPDATE 한 문장으로 수정하며, 수정된 일기 수를 반환한다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional
+    public int updateDiary(LocalDate date, String text) {
+        int updated = diaryRepository.updateFirstTextByDate(date, text);
+        if (updated == 0) {
+            logger.error("failed to update diary: No diary found for {}", date);
+            return 0;
         }
+        diaryVersions.bumpAfterCommit(date);
+        List<Diary> diaries = diaryRepository.findAllByDate(date);
+        AfterCommit.run(() -> diarySearchIndex.replaceDate(date, diaries));
+        logger.debug("finished to update diary");
+        return updated;
+    }
 
-        JSONArray weatherArray = (JSONArray) jsonObject.get("weather");
-        if (weatherArray != null && !weatherArray.isEmpty()) {
-            JSONObject weatherData = (JSONObject) weatherArray.get(0);
-            resultMap.put("main", weatherData.get("main"));
-            resultMap.put("icon", weatherData.get("icon"));
+    /**
+     * 조회 없이 DELETE 한 문장으로 삭제하며, 삭제된 일기 수를 반환한다.
+     */
+    @Timed(value = "diary.service", histogram = true)
+    @Transactional
+    public int deleteDiary(LocalDate date) {
+        int deleted = diaryRepository.deleteAllInBulkByDate(date);
+        if (deleted == 0) {
+            logger.error("failed to delete diary: No diaries found for {}", date);
+            return 0;
         }
-        return resultMap;
+        diaryRollupRepository.removeDate(date);
+        diaryVersions.bumpAfterCommit(date);
+        AfterCommit.run(() -> diarySearchIndex.removeDate(date));
+        logger.info("finished to delete {} diaries", deleted);
+        return deleted;
     }
 
-    private Diary buildDiary(LocalDate date, String text, DateWeather dateWeather) {
+    static Diary buildDiary(LocalDate date, String text, DateWeather dateWeather) {
         Diary diary = new Diary();
         diary.setDateWeather(dateWeather);
+        diary.setDate(date);
         diary.setText(text);
         return diary;
     }
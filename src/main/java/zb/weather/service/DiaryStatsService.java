@@ -0,0 +1,137 @@
+package zb.weather.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import zb.weather.cluster.SchedulerLock;
+import zb.weather.datasource.Workload;
+import zb.weather.dto.DiaryStats;
+import zb.weather.repository.DiaryRollupRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * diary_rollup 으로 일기 통계를 만든다. 읽는 행 수는 기간 안의 (날짜, 날씨) 조합 수라 일기가 아무리 많아도
+ * 기간 길이에만 비례한다. 집계는 일기를 쓰는 트랜잭션에서 함께 고쳐지고, rebuild 는 diary 에서 다시 만든다.
+ */
+@Service
+public class DiaryStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryStatsService.class);
+
+    private final DiaryRollupRepository diaryRollupRepository;
+    private final SchedulerLock schedulerLock;
+    private final Duration lockAtMostFor;
+    private final Duration lockAtLeastFor;
+
+    public DiaryStatsService(DiaryRollupRepository diaryRollupRepository, SchedulerLock schedulerLock,
+                             @Value("${diary.rollup.lock-at-most-for:1h}") Duration lockAtMostFor,
+                             @Value("${diary.rollup.lock-at-least-for:1m}") Duration lockAtLeastFor) {
+        this.diaryRollupRepository = diaryRollupRepository;
+        this.schedulerLock = schedulerLock;
+        this.lockAtMostFor = lockAtMostFor;
+        this.lockAtLeastFor = lockAtLeastFor;
+    }
+
+    /**
+     * startDate ~ endDate(포함) 의 전체 통계와 월별 통계.
+     */
+    @Transactional(readOnly = true)
+    public DiaryStats stats(LocalDate startDate, LocalDate endDate) {
+        Accumulator total = new Accumulator();
+        Map<YearMonth, Accumulator> months = new TreeMap<>();
+        List<DiaryRollupRepository.Row> rows = diaryRollupRepository.findBetween(startDate, endDate);
+        int i = 0;
+        while (i < rows.size()) {
+            // 같은 날짜의 행(날씨별)을 모아 하루로 더한다.
+            LocalDate date = rows.get(i).getDate();
+            Accumulator month = months.computeIfAbsent(YearMonth.from(date), m -> new Accumulator());
+            int dayDiaries = 0;
+            double dayTemperatureSum = 0;
+            for (; i < rows.size() && rows.get(i).getDate().equals(date); i++) {
+                DiaryRollupRepository.Row row = rows.get(i);
+                dayDiaries += row.getDiaryCount();
+                dayTemperatureSum += row.getTemperatureSum();
+                total.addCondition(row.getWeather(), row.getDiaryCount());
+                month.addCondition(row.getWeather(), row.getDiaryCount());
+            }
+            if (dayDiaries > 0) {
+                total.addDay(dayDiaries, dayTemperatureSum / dayDiaries);
+                month.addDay(dayDiaries, dayTemperatureSum / dayDiaries);
+            }
+        }
+
+        List<DiaryStats.Month> monthStats = new ArrayList<>(months.size());
+        for (Map.Entry<YearMonth, Accumulator> entry : months.entrySet()) {
+            Accumulator month = entry.getValue();
+            monthStats.add(new DiaryStats.Month(entry.getKey().toString(), month.diaries, month.days,
+                    month.avgTemperature(), month.conditions));
+        }
+        return new DiaryStats(startDate, endDate,
+                new DiaryStats.Summary(total.diaries, total.days, total.avgTemperature(), total.conditions),
+                Collections.unmodifiableList(monthStats));
+    }
+
+    /**
+     * diary 테이블 전체로 집계를 다시 만들고 집계 행 수를 반환한다.
+     */
+    public int rebuild() {
+        long start = System.nanoTime();
+        int rows = diaryRollupRepository.rebuild();
+        logger.info("diary rollup rebuilt: {} rows in {}ms", rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    /**
+     * 예약 rebuild 와 같은 잠금을 잡고 rebuild 한다. 다른 노드가 rebuild 중이거나
+     * 마지막 rebuild 뒤 lock-at-least-for 가 지나지 않았으면 실행하지 않고 null 을 반환한다.
+     */
+    public Integer rebuildLocked() {
+        return schedulerLock.runLocked("diary-rollup-rebuild", lockAtMostFor, lockAtLeastFor, this::rebuild);
+    }
+
+    /**
+     * diary.rollup.rebuild-cron 에 맞춰 여러 노드 중 한 곳에서만 rebuild 한다. 기본값 "-" 는 끈다.
+     */
+    @Scheduled(cron = "${diary.rollup.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        try (Workload.Scope ignored = Workload.enter(Workload.SCHEDULER)) {
+            rebuildLocked();
+        }
+    }
+
+    // 기온 단위와 자릿수는 WeatherSeries 통계와 맞춘다.
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static class Accumulator {
+        private int diaries;
+        private int days;
+        private double dayTemperatureSum;
+        private final Map<String, Integer> conditions = new TreeMap<>();
+
+        void addDay(int diaries, double temperature) {
+            this.diaries += diaries;
+            this.days++;
+            this.dayTemperatureSum += temperature;
+        }
+
+        void addCondition(String weather, int count) {
+            conditions.merge(weather, count, Integer::sum);
+        }
+
+        Double avgTemperature() {
+            return days == 0 ? null : round(dayTemperatureSum / days);
+        }
+    }
+}
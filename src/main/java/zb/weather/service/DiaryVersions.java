@@ -0,0 +1,99 @@
+package zb.weather.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 날짜별 일기 버전. 일기가 바뀔 때마다 전역 순번을 하나 올려 그 날짜에 기록하므로,
+ * 기간의 버전은 기간 안 날짜 버전의 최댓값이 되고 기간 안에서 무엇이든 바뀌면 반드시 커진다.
+ * 메모리에만 두고 ETag 에 기동 시각을 섞어, 재기동 전의 ETag 는 일치하지 않게 한다.
+ */
+@Component
+public class DiaryVersions {
+    private final long startedAt = System.currentTimeMillis();
+    private final String epoch = Long.toString(startedAt, 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListMap<LocalDate, Version> versions = new ConcurrentSkipListMap<>();
+    private final List<Consumer<LocalDate>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 이 노드에서 일기를 바꿨을 때 부른다. 진행 중인 트랜잭션이 있으면 커밋 후에, 없으면 바로 버전을 올리고
+     * 리스너에 알린다. 커밋 전에 올리면 그 사이 조회가 이전 데이터를 새 ETag 로 내보낼 수 있다.
+     */
+    public void bumpAfterCommit(LocalDate date) {
+        AfterCommit.run(() -> {
+            bump(date);
+            for (Consumer<LocalDate> listener : listeners) {
+                listener.accept(date);
+            }
+        });
+    }
+
+    /**
+     * 리스너에 알리지 않고 이 노드의 버전만 올린다. 다른 노드의 변경을 반영할 때 쓴다.
+     */
+    public void bump(LocalDate date) {
+        versions.put(date, new Version(sequence.incrementAndGet(), System.currentTimeMillis()));
+    }
+
+    /**
+     * bumpAfterCommit 으로 버전이 오른 날짜를 받는다.
+     */
+    public void addListener(Consumer<LocalDate> listener) {
+        listeners.add(listener);
+    }
+
+    public Version of(LocalDate date) {
+        Version version = versions.get(date);
+        return version == null ? new Version(0, startedAt) : version;
+    }
+
+    public Version of(LocalDate startDate, LocalDate endDate) {
+        long seq = 0;
+        long modifiedAt = startedAt;
+        if (!startDate.isAfter(endDate)) {
+            ConcurrentNavigableMap<LocalDate, Version> range = versions.subMap(startDate, true, endDate, true);
+            for (Version version : range.values()) {
+                seq = Math.max(seq, version.seq);
+                modifiedAt = Math.max(modifiedAt, version.modifiedAt);
+            }
+        }
+        return new Version(seq, modifiedAt);
+    }
+
+    public class Version {
+        private final long seq;
+        private final long modifiedAt;
+
+        Version(long seq, long modifiedAt) {
+            this.seq = seq;
+            this.modifiedAt = modifiedAt;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public String getETag() {
+            return "\"" + epoch + "-" + seq + "\"";
+        }
+
+        /**
+         * 같은 버전의 다른 표현(묶음 형식, gzip)을 구분하는 ETag.
+         */
+        public String getETag(String variant) {
+            return variant.isEmpty() ? getETag() : "\"" + epoch + "-" + seq + "-" + variant + "\"";
+        }
+
+        public long getLastModified() {
+            return modifiedAt;
+        }
+    }
+}
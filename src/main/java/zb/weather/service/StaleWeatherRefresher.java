@@ -0,0 +1,193 @@
+package zb.weather.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import zb.weather.cluster.CacheInvalidation;
+import zb.weather.datasource.ReplicaRoutingDataSource;
+import zb.weather.datasource.Workload;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Diary;
+import zb.weather.repository.DiaryRepository;
+import zb.weather.repository.DiaryRollupRepository;
+import zb.weather.repository.JdbcDateWeatherRepository;
+import zb.weather.search.DiarySearchIndex;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * stale 날씨를 내보낸 날짜를 백그라운드에서 다시 조회한다.
+ * 날짜마다 한 번에 하나의 갱신만 돌고, 실패하면 retry-delay 부터 두 배씩 늘려 max-backoff 까지 기다렸다가
+ * max-attempts 번까지 다시 시도한다. 그래도 실패하면 포기하고, 다음에 그 날짜로 stale 날씨를 내보낼 때 새로 시작한다.
+ * 성공하면 date_weather 에 저장하고, 실제로 남은 행으로 캐시를 채운 뒤 그 날짜에 stale 날씨로 저장된 일기를 바로잡는다.
+ */
+@Component
+public class StaleWeatherRefresher implements MeterBinder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(StaleWeatherRefresher.class);
+
+    private final DateWeatherCache dateWeatherCache;
+    private final JdbcDateWeatherRepository jdbcDateWeatherRepository;
+    private final WeatherSeries weatherSeries;
+    private final CacheInvalidation cacheInvalidation;
+    private final DiaryRepository diaryRepository;
+    private final DiaryRollupRepository diaryRollupRepository;
+    private final DiaryVersions diaryVersions;
+    private final DiarySearchIndex diarySearchIndex;
+    // 일기 날씨와 집계를 한 트랜잭션에서 고친다. DiaryService 가 이 빈을 쓰므로 서비스 메서드로 두지 않는다.
+    private final TransactionTemplate transactionTemplate;
+    private final long retryDelayMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+    private final Set<LocalDate> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(Workload.SCHEDULER.wrap(r), "weather-stale-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Counter served;
+    private Counter refreshed;
+    private Counter abandoned;
+
+    public StaleWeatherRefresher(DateWeatherCache dateWeatherCache,
+                                 JdbcDateWeatherRepository jdbcDateWeatherRepository,
+                                 WeatherSeries weatherSeries, CacheInvalidation cacheInvalidation,
+                                 DiaryRepository diaryRepository,
+                                 DiaryRollupRepository diaryRollupRepository, DiaryVersions diaryVersions,
+                                 DiarySearchIndex diarySearchIndex, PlatformTransactionManager transactionManager,
+                                 @Value("${weather.circuit.open-duration:30s}") Duration retryDelay,
+                                 @Value("${weather.stale.max-backoff:10m}") Duration maxBackoff,
+                                 @Value("${weather.stale.max-attempts:8}") int maxAttempts) {
+        this.dateWeatherCache = dateWeatherCache;
+        this.jdbcDateWeatherRepository = jdbcDateWeatherRepository;
+        this.weatherSeries = weatherSeries;
+        this.cacheInvalidation = cacheInvalidation;
+        this.diaryRepository = diaryRepository;
+        this.diaryRollupRepository = diaryRollupRepository;
+        this.diaryVersions = diaryVersions;
+        this.diarySearchIndex = diarySearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryDelayMillis = retryDelay.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * date 에 stale 날씨를 내보냈다고 기록하고, 아직 갱신 중이 아니면 갱신을 예약한다.
+     * 서킷이 열려 있는 동안은 어차피 거절되므로 첫 시도도 retry-delay 뒤에 한다.
+     */
+    public void refresh(LocalDate date, Function<LocalDate, DateWeather> fetcher) {
+        if (served != null) {
+            served.increment();
+        }
+        if (inFlight.add(date)) {
+            executor.schedule(() -> attempt(date, fetcher, 1), retryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void attempt(LocalDate date, Function<LocalDate, DateWeather> fetcher, int attempt) {
+        try {
+            DateWeather fetched = fetcher.apply(date);
+            fetched.setDate(date);
+            DateWeather dateWeather = persist(fetched);
+            dateWeatherCache.put(dateWeather);
+            weatherSeries.put(dateWeather);
+            cacheInvalidation.publishWeather(date);
+            int updated = correctDiaries(date, dateWeather);
+            inFlight.remove(date);
+            if (refreshed != null) {
+                refreshed.increment();
+            }
+            logger.info("refreshed stale weather for {}, {} diaries updated", date, updated);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                inFlight.remove(date);
+                if (abandoned != null) {
+                    abandoned.increment();
+                }
+                logger.error("gave up refreshing stale weather for {} after {} attempts", date, attempt, e);
+                return;
+            }
+            long delayMillis = backoffMillis(attempt);
+            logger.warn("failed to refresh stale weather for {} (attempt {}/{}), retrying in {}ms",
+                    date, attempt, maxAttempts, delayMillis);
+            executor.schedule(() -> attempt(date, fetcher, attempt + 1), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * fetched 를 저장하고 date_weather 에 실제로 남은 행을 반환한다. 야간 수집 등이 먼저 저장했으면 insert 는 건너뛰어지므로
+     * 캐시와 일기를 그 행에 맞춘다. 방금 쓴 행이 아직 복제본에 없을 수 있어 프라이머리에서 읽는다.
+     */
+    private DateWeather persist(DateWeather fetched) {
+        jdbcDateWeatherRepository.saveAllIgnoringExisting(Collections.singletonList(fetched));
+        try (ReplicaRoutingDataSource.Scope ignored = ReplicaRoutingDataSource.primaryOnly()) {
+            return jdbcDateWeatherRepository.findByLocationIdAndDate(fetched.getLocationId(), fetched.getDate())
+                    .orElse(fetched);
+        }
+    }
+
+    /**
+     * date 에 dateWeather 의 위치로 쓴 일기 날씨를 dateWeather 로 바꾸고 그 날짜 집계를 다시 계산한다.
+     * 둘 중 하나가 실패하면 함께 되돌려 일기와 집계가 서로 다른 날씨를 가리키지 않게 한다.
+     * 검색 색인은 커밋 후 그 날짜의 일기로 바꾼다. 바뀐 일기 수를 반환한다.
+     */
+    private int correctDiaries(LocalDate date, DateWeather dateWeather) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = diaryRepository.updateWeatherByLocationAndDate(dateWeather.getLocationId(), date,
+                    dateWeather.getWeather(), dateWeather.getIcon(), dateWeather.getTemperature());
+            if (count > 0) {
+                diaryRollupRepository.refreshDate(date);
+                diaryVersions.bumpAfterCommit(date);
+                List<Diary> diaries = diaryRepository.findAllByDate(date);
+                AfterCommit.run(() -> diarySearchIndex.replaceDate(date, diaries));
+            }
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    /**
+     * attempt 번째 실패 뒤에 기다릴 시간. retry-delay 에서 시작해 두 배씩 늘리되 max-backoff 를 넘지 않는다.
+     */
+    private long backoffMillis(int attempt) {
+        long delay = retryDelayMillis;
+        for (int i = 1; i < attempt && delay < maxBackoffMillis; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, maxBackoffMillis);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        served = Counter.builder("weather.stale.served")
+                .description("외부 API 대신 최근 날씨로 채운 횟수")
+                .register(registry);
+        refreshed = Counter.builder("weather.stale.refreshed")
+                .description("stale 날씨를 실제 날씨로 바로잡은 횟수")
+                .register(registry);
+        abandoned = Counter.builder("weather.stale.abandoned")
+                .description("max-attempts 번 실패해 갱신을 포기한 횟수")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -1,64 +1,110 @@
 package zb.weather.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import zb.weather.http.HttpEngine;
+import zb.weather.http.HttpResult;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 @Component
 public class WeatherApiClient {
     private static final Logger logger = LoggerFactory.getLogger(WeatherApiClient.class);
 
-    @Value("${openweathermap.key}")
-    private String apiKey;
+    private static final String METRIC_NAME = "weather.api.requests";
 
-    @Value("${openweathermap.url}")
-    private String apiUrl;
+    private final HttpEngine httpEngine;
+    private final MeterRegistry meterRegistry;
+    private final WeatherCircuitBreaker circuitBreaker;
+    private final String requestUrl;
+    private final String historyRequestUrl;
+    private final String locationRequestUrl;
+
+    public WeatherApiClient(HttpEngine httpEngine, MeterRegistry meterRegistry, WeatherCircuitBreaker circuitBreaker,
+                            @Value("${openweathermap.url}") String apiUrl,
+                            @Value("${openweathermap.history-url}") String historyUrl,
+                            @Value("${openweathermap.location-url}") String locationUrl,
+                            @Value("${openweathermap.key}") String apiKey) {
+        this.httpEngine = httpEngine;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.requestUrl = apiUrl + apiKey;
+        this.historyRequestUrl = historyUrl + apiKey + "&dt=";
+        this.locationRequestUrl = locationUrl + apiKey;
+    }
 
     public String getWeatherData() {
-        String urlString = String.format("%s%s", apiUrl, apiKey);
-        HttpURLConnection connection = null;
-        BufferedReader br = null;
+        return fetch(requestUrl, "current", circuitBreaker);
+    }
 
-        try {
-            // URL 연결 설정
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
+    /**
+     * 좌표의 현재 날씨를 가져온다. location-url 의 {lat}, {lon} 을 채워 요청한다.
+     */
+    public String getWeatherData(double lat, double lon) {
+        return getWeatherData(lat, lon, circuitBreaker);
+    }
 
-            // 응답 코드 확인
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                logger.info("Weather data fetched successfully.");
-                br = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            } else {
-                logger.error("Failed to fetch weather data. Response code: " + responseCode);
-                br = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            }
+    /**
+     * 호출마다 쓸 서킷 브레이커를 받는다. 대량 수집처럼 실패가 몰려도 일기 생성의 날씨 조회를 막지 않아야 하는 곳에서 쓴다.
+     */
+    public String getWeatherData(double lat, double lon, WeatherCircuitBreaker circuitBreaker) {
+        String url = locationRequestUrl.replace("{lat}", String.valueOf(lat)).replace("{lon}", String.valueOf(lon));
+        return fetch(url, "location", circuitBreaker);
+    }
 
-            // 응답 받기
-            StringBuilder response = new StringBuilder();
-            String inputLine;
-            while ((inputLine = br.readLine()) != null) {
-                response.append(inputLine);
+    /**
+     * 지난 날짜의 날씨(One Call timemachine 응답)를 가져온다. 해당 날짜 정오(UTC) 시점을 기준으로 한다.
+     */
+    public String getHistoricalWeatherData(LocalDate date) {
+        long epochSecond = date.atTime(12, 0).toEpochSecond(ZoneOffset.UTC);
+        return fetch(historyRequestUrl + epochSecond, "history", circuitBreaker);
+    }
+
+    /**
+     * 호출 시간은 weather.api.requests 타이머에 endpoint 와 status(응답 코드, timeout, error) 별로 기록한다.
+     * 서킷이 열려 있으면 요청을 보내지 않고 바로 null 을 반환한다.
+     */
+    private String fetch(String url, String endpoint, WeatherCircuitBreaker circuitBreaker) {
+        if (!circuitBreaker.tryAcquire()) {
+            logger.debug("Weather circuit is open, skipping request");
+            return null;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "error";
+        boolean success = false;
+        try {
+            HttpResult result = httpEngine.get(url);
+            status = String.valueOf(result.getStatus());
+            if (!result.isOk()) {
+                logger.error("Failed to fetch weather data. Response code: {}", result.getStatus());
+                return null;
             }
-            return response.toString();
+            success = true;
+            logger.debug("Weather data fetched successfully.");
+            return result.getBody();
+        } catch (InterruptedIOException e) {
+            status = "timeout";
+            logger.error("Timed out fetching weather data", e);
+            return null;
         } catch (Exception e) {
             logger.error("Error fetching weather data", e);
             return null;
         } finally {
-            // 자원 해제
-            try {
-                if (br != null) br.close();
-                if (connection != null) connection.disconnect();
-            } catch (Exception e) {
-                logger.error("Error closing resources", e);
+            if (success) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
             }
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("endpoint", endpoint)
+                    .tag("status", status)
+                    .register(meterRegistry));
         }
     }
 }
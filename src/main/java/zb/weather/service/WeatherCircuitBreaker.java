@@ -0,0 +1,95 @@
+package zb.weather.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 외부 날씨 API 앞의 서킷 브레이커.
+ * 연속 실패가 failure-threshold 에 도달하면 open-duration 동안 호출을 바로 거절하고,
+ * 그 뒤 한 번의 시험 호출(half-open)이 성공하면 다시 닫힌다.
+ */
+@Component
+public class WeatherCircuitBreaker implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int consecutiveFailures;
+    private Counter rejected;
+
+    public WeatherCircuitBreaker(@Value("${weather.circuit.failure-threshold:5}") int failureThreshold,
+                                 @Value("${weather.circuit.open-duration:30s}") Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 호출해도 되는지 확인한다. false 면 호출하지 말고 바로 실패로 처리해야 한다.
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            synchronized (this) {
+                if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    trialInFlight.set(false);
+                }
+            }
+        }
+        if (state == State.HALF_OPEN && trialInFlight.compareAndSet(false, true)) {
+            return true;
+        }
+        if (rejected != null) {
+            rejected.increment();
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            logger.info("weather circuit closed");
+            state = State.CLOSED;
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("weather circuit opened after {} consecutive failures", consecutiveFailures);
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("weather.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0: closed, 1: open, 2: half-open")
+                .register(registry);
+        rejected = Counter.builder("weather.circuit.rejected")
+                .description("서킷이 열려 있어 바로 거절한 호출 수")
+                .register(registry);
+    }
+}
@@ -0,0 +1,158 @@
+package zb.weather.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+import zb.weather.domain.DateWeather;
+
+import java.io.IOException;
+
+/**
+ * OpenWeatherMap 현재 날씨 응답에서 main.temp, weather[0].main, weather[0].icon 만 읽어 DateWeather 로 만든다.
+ * 토큰 스트림을 한 번 훑으면서 나머지 값은 건너뛰므로 중간 Map 이나 트리를 만들지 않는다.
+ */
+@Component
+public class WeatherResponseParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 필요한 값이 하나라도 없으면 null 을 반환한다. 날짜는 호출하는 쪽에서 채운다.
+     */
+    public DateWeather parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing weather data", e);
+        }
+    }
+
+    /**
+     * One Call timemachine 응답에서 data[0].temp, data[0].weather[0] 을 읽는다.
+     */
+    public DateWeather parseHistorical(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parseHistorical(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing weather data", e);
+        }
+    }
+
+    private DateWeather parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        DateWeather dateWeather = new DateWeather();
+        boolean hasTemperature = false;
+        boolean hasWeather = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("main".equals(field) && value == JsonToken.START_OBJECT) {
+                hasTemperature = readTemperature(parser, dateWeather);
+            } else if ("weather".equals(field) && value == JsonToken.START_ARRAY) {
+                hasWeather = readFirstWeather(parser, dateWeather);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return hasTemperature && hasWeather ? dateWeather : null;
+    }
+
+    private DateWeather parseHistorical(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        DateWeather dateWeather = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                dateWeather = readFirstDataPoint(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return dateWeather;
+    }
+
+    private DateWeather readFirstDataPoint(JsonParser parser) throws IOException {
+        JsonToken element = parser.nextToken();
+        if (element == JsonToken.END_ARRAY) {
+            return null;
+        }
+        DateWeather dateWeather = new DateWeather();
+        boolean hasTemperature = false;
+        boolean hasWeather = false;
+        if (element == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("temp".equals(field) && value.isNumeric()) {
+                    dateWeather.setTemperature(parser.getDoubleValue());
+                    hasTemperature = true;
+                } else if ("weather".equals(field) && value == JsonToken.START_ARRAY) {
+                    hasWeather = readFirstWeather(parser, dateWeather);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        return hasTemperature && hasWeather ? dateWeather : null;
+    }
+
+    private boolean readTemperature(JsonParser parser, DateWeather dateWeather) throws IOException {
+        boolean found = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("temp".equals(field) && value.isNumeric()) {
+                dateWeather.setTemperature(parser.getDoubleValue());
+                found = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+
+    private boolean readFirstWeather(JsonParser parser, DateWeather dateWeather) throws IOException {
+        JsonToken element = parser.nextToken();
+        if (element == JsonToken.END_ARRAY) {
+            return false;
+        }
+        boolean found = false;
+        if (element == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("main".equals(field) && value.isScalarValue()) {
+                    dateWeather.setWeather(parser.getValueAsString());
+                    found = true;
+                } else if ("icon".equals(field) && value.isScalarValue()) {
+                    dateWeather.setIcon(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        return found;
+    }
+}
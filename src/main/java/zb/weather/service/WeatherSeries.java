@@ -0,0 +1,256 @@
+package zb.weather.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Location;
+import zb.weather.dto.WeatherStats;
+import zb.weather.repository.DateWeatherRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 기본 위치의 날짜별 날씨를 epoch day 로 색인한 열 배열로 메모리에 둔다.
+ * 기온은 float[] 에, 날씨와 아이콘은 사전 부호화한 short[] 코드로 저장하며 빈 날짜는 NaN / 0 이다.
+ * 기동 시 기본 위치의 date_weather 전체로 다시 만들고 이후 저장되는 날씨를 put 으로 반영한다.
+ * 기간 집계는 기간 길이만큼의 원시 배열만 훑으므로 행을 읽거나 엔티티를 만들지 않는다.
+ * 배열은 [오늘 - max-years 년, 내일] 만 색인해 잘못된 날짜(예: 9999년) 하나로 커지지 않게 하고,
+ * 그 밖의 날짜는 색인하지 않고 집계할 때 date_weather 에서 읽는다.
+ */
+@Component
+public class WeatherSeries {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherSeries.class);
+    private static final int INITIAL_CAPACITY = 366;
+
+    private final DateWeatherRepository dateWeatherRepository;
+    private final int maxYears;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary conditions = new Dictionary();
+    private final Dictionary icons = new Dictionary();
+    private long firstDay;
+    private int length;
+    private float[] temperatures = new float[0];
+    private short[] conditionCodes = new short[0];
+    private short[] iconCodes = new short[0];
+
+    public WeatherSeries(DateWeatherRepository dateWeatherRepository,
+                         @Value("${weather.series.max-years:50}") int maxYears) {
+        this.dateWeatherRepository = dateWeatherRepository;
+        this.maxYears = maxYears;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<DateWeather> all = dateWeatherRepository.findAllByLocationId(Location.DEFAULT_ID);
+        int skipped = 0;
+        lock.writeLock().lock();
+        try {
+            length = 0;
+            temperatures = new float[0];
+            conditionCodes = new short[0];
+            iconCodes = new short[0];
+            for (DateWeather dateWeather : all) {
+                if (!putLocked(dateWeather)) {
+                    skipped++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("weather series rebuilt: {} days, {} outside the indexed range, {} conditions in {}ms",
+                all.size() - skipped, skipped, conditions.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(DateWeather dateWeather) {
+        lock.writeLock().lock();
+        try {
+            putLocked(dateWeather);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * startDate ~ endDate(포함) 의 최저/최고/평균 기온과 날씨별 일수. 날씨가 있는 날이 없으면 기온은 null 이다.
+     * 색인 범위 밖의 구간은 date_weather 에서 읽어 더한다.
+     */
+    public WeatherStats stats(LocalDate startDate, LocalDate endDate) {
+        int days = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        double sum = 0;
+        int[] histogram;
+        List<String> names;
+        LocalDate today = LocalDate.now();
+        LocalDate lowerBound = lowerBound(today);
+        LocalDate upperBound = upperBound(today);
+        lock.readLock().lock();
+        try {
+            histogram = new int[conditions.size() + 1];
+            names = conditions.snapshot();
+            long startDay = Math.max(startDate.toEpochDay(), lowerBound.toEpochDay());
+            long endDay = Math.min(endDate.toEpochDay(), upperBound.toEpochDay());
+            int from = (int) Math.min(length, Math.max(0, startDay - firstDay));
+            int to = (int) Math.max(-1, Math.min(length - 1L, endDay - firstDay));
+            for (int i = from; i <= to; i++) {
+                float temperature = temperatures[i];
+                if (Float.isNaN(temperature)) {
+                    continue;
+                }
+                days++;
+                sum += temperature;
+                if (temperature < min) {
+                    min = temperature;
+                }
+                if (temperature > max) {
+                    max = temperature;
+                }
+                histogram[conditionCodes[i]]++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Integer> conditionDays = new LinkedHashMap<>();
+        for (int code = 1; code < histogram.length; code++) {
+            if (histogram[code] > 0) {
+                conditionDays.put(names.get(code - 1), histogram[code]);
+            }
+        }
+        List<DateWeather> outside = new ArrayList<>();
+        if (startDate.isBefore(lowerBound)) {
+            LocalDate to = endDate.isBefore(lowerBound) ? endDate : lowerBound.minusDays(1);
+            outside.addAll(dateWeatherRepository.findAllByLocationIdAndDateBetween(Location.DEFAULT_ID, startDate, to));
+        }
+        if (endDate.isAfter(upperBound)) {
+            LocalDate from = startDate.isAfter(upperBound) ? startDate : upperBound.plusDays(1);
+            outside.addAll(dateWeatherRepository.findAllByLocationIdAndDateBetween(Location.DEFAULT_ID, from, endDate));
+        }
+        for (DateWeather dateWeather : outside) {
+            float temperature = (float) dateWeather.getTemperature();
+            days++;
+            sum += temperature;
+            min = Math.min(min, temperature);
+            max = Math.max(max, temperature);
+            if (dateWeather.getWeather() != null) {
+                conditionDays.merge(dateWeather.getWeather(), 1, Integer::sum);
+            }
+        }
+        return days == 0
+                ? new WeatherStats(startDate, endDate, 0, null, null, null, conditionDays)
+                : new WeatherStats(startDate, endDate, days, round(min), round(max), round(sum / days), conditionDays);
+    }
+
+    // float 열에서 나온 값이라 소수 둘째 자리까지만 의미가 있다.
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 색인 범위 안이면 배열에 넣고 true 를 반환한다. 범위 밖의 날씨는 stats 가 DB 에서 읽으므로 버린다.
+     */
+    private boolean putLocked(DateWeather dateWeather) {
+        LocalDate today = LocalDate.now();
+        LocalDate date = dateWeather.getDate();
+        if (date.isBefore(lowerBound(today)) || date.isAfter(upperBound(today))) {
+            logger.debug("weather for {} is outside the indexed range, not indexed", date);
+            return false;
+        }
+        int index = ensureIndex(date.toEpochDay());
+        temperatures[index] = (float) dateWeather.getTemperature();
+        conditionCodes[index] = conditions.code(dateWeather.getWeather());
+        iconCodes[index] = icons.code(dateWeather.getIcon());
+        return true;
+    }
+
+    private LocalDate lowerBound(LocalDate today) {
+        return today.minusYears(maxYears);
+    }
+
+    private static LocalDate upperBound(LocalDate today) {
+        return today.plusDays(1);
+    }
+
+    /**
+     * day 가 들어갈 자리를 만들고 배열 안의 위치를 반환한다. 범위 밖이면 앞이나 뒤로 늘린다.
+     * putLocked 가 색인 범위 안의 날짜만 넘기므로 배열은 max-years 년 남짓을 넘지 않는다.
+     */
+    private int ensureIndex(long day) {
+        if (length == 0) {
+            firstDay = day;
+            resize(INITIAL_CAPACITY, 0);
+            length = 1;
+            return 0;
+        }
+        if (day < firstDay) {
+            int shift = (int) (firstDay - day);
+            resize(Math.max(temperatures.length + shift, length + shift), shift);
+            firstDay = day;
+            length += shift;
+            return 0;
+        }
+        int index = (int) (day - firstDay);
+        if (index >= temperatures.length) {
+            resize(Math.max(temperatures.length * 2, index + 1), 0);
+        }
+        length = Math.max(length, index + 1);
+        return index;
+    }
+
+    private void resize(int capacity, int shift) {
+        float[] newTemperatures = new float[capacity];
+        Arrays.fill(newTemperatures, Float.NaN);
+        short[] newConditionCodes = new short[capacity];
+        short[] newIconCodes = new short[capacity];
+        System.arraycopy(temperatures, 0, newTemperatures, shift, length);
+        System.arraycopy(conditionCodes, 0, newConditionCodes, shift, length);
+        System.arraycopy(iconCodes, 0, newIconCodes, shift, length);
+        temperatures = newTemperatures;
+        conditionCodes = newConditionCodes;
+        iconCodes = newIconCodes;
+    }
+
+    /**
+     * 문자열 ↔ 코드 사전. 0 은 값 없음이고 처음 본 문자열부터 1, 2, ... 를 붙인다.
+     */
+    private static class Dictionary {
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        short code(String name) {
+            if (name == null) {
+                return 0;
+            }
+            Short code = codes.get(name);
+            if (code == null) {
+                if (names.size() >= Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct values: " + name);
+                }
+                names.add(name);
+                code = (short) names.size();
+                codes.put(name, code);
+            }
+            return code;
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        List<String> snapshot() {
+            return new ArrayList<>(names);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- 마이그레이션 도입 이전 스키마. 이미 테이블이 있는 DB 는 baseline 으로 건너뛴다.
+create table memo (
+    id   int          not null auto_increment,
+    text varchar(255),
+    primary key (id)
+);
+
+create table date_weather (
+    date        date         not null,
+    weather     varchar(255),
+    icon        varchar(255),
+    temperature double       not null,
+    primary key (date)
+);
+
+create table diary (
+    id          int          not null auto_increment,
+    weather     varchar(255),
+    icon        varchar(255),
+    temperature double       not null,
+    text        varchar(255),
+    date        date,
+    primary key (id)
+);
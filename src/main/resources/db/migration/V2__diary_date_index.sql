@@ -0,0 +1,6 @@
+-- 모든 일기 조회/삭제가 date 로 거르고 (date, id) 순으로 정렬하므로 범위 스캔용 복합 인덱스를 둔다.
+create index ix_diary_date_id on diary (date, id);
+
+-- 멱등성 키
+alter table diary add column request_id varchar(64);
+create unique index ux_diary_request_id on diary (request_id);
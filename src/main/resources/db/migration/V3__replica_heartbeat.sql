@@ -0,0 +1,6 @@
+-- 프라이머리가 주기적으로 시각을 기록하고, 복제본에서 읽은 값과의 차이로 복제 지연을 잰다.
+create table replica_heartbeat (
+    id      int          not null,
+    beat_at datetime(3)  not null,
+    primary key (id)
+);
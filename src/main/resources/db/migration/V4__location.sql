@@ -0,0 +1,17 @@
+-- 여러 도시의 날씨를 모으기 위해 위치를 두고, 날씨는 (위치, 날짜) 로 구분한다.
+-- 기존 행은 모두 지금까지 쓰던 서울 좌표(위치 1)의 날씨와 일기다.
+create table location (
+    id   int          not null auto_increment,
+    name varchar(100) not null,
+    lat  double       not null,
+    lon  double       not null,
+    primary key (id)
+);
+create unique index ux_location_name on location (name);
+insert into location(name, lat, lon) values ('Seoul', 37.5683, 126.9778);
+
+alter table date_weather add column location_id int not null default 1;
+alter table date_weather drop primary key;
+alter table date_weather add primary key (location_id, date);
+
+alter table diary add column location_id int not null default 1;
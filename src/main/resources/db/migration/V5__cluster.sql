@@ -0,0 +1,19 @@
+-- 여러 노드 중 한 곳에서만 예약 작업을 돌리기 위한 잠금. lock_until 이 지나면 다른 노드가 가져갈 수 있다.
+create table scheduler_lock (
+    name       varchar(64)  not null,
+    lock_until datetime(3)  not null,
+    locked_at  datetime(3)  not null,
+    locked_by  varchar(255) not null,
+    primary key (name)
+);
+
+-- 노드가 바꾼 날짜를 남겨 다른 노드가 메모리 캐시를 비우게 한다. 오래된 행은 각 노드가 지운다.
+create table cache_change (
+    id         bigint       not null auto_increment,
+    node       varchar(255) not null,
+    kind       varchar(16)  not null,
+    date       date         not null,
+    created_at datetime(3)  not null,
+    primary key (id)
+);
+create index ix_cache_change_created_at on cache_change (created_at);
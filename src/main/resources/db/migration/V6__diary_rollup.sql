@@ -0,0 +1,14 @@
+-- 날짜, 날씨별 일기 수와 기온 합. 일기를 저장하고 지우는 트랜잭션 안에서 함께 고치므로
+-- 월별 통계는 일기 수와 관계없이 기간의 날짜 수만큼의 행만 읽는다. 기존 일기로 처음 채운다.
+create table diary_rollup (
+    date            date         not null,
+    weather         varchar(255) not null,
+    diary_count     int          not null,
+    temperature_sum double       not null,
+    primary key (date, weather)
+);
+insert into diary_rollup(date, weather, diary_count, temperature_sum)
+select date, coalesce(weather, ''), count(*), sum(temperature)
+from diary
+where date is not null
+group by date, coalesce(weather, '');
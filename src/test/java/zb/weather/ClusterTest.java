@@ -0,0 +1,131 @@
+package zb.weather;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import zb.weather.cluster.CacheInvalidation;
+import zb.weather.cluster.SchedulerLock;
+import zb.weather.domain.DateWeather;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.service.DateWeatherCache;
+import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryVersions;
+import zb.weather.service.WeatherSeries;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 같은 DB 를 쓰는 두 애플리케이션 컨텍스트를 한 JVM 에 띄워 노드 두 개처럼 다룬다.
+ */
+public class ClusterTest {
+    private static final LocalDate DIARY_DATE = LocalDate.of(2021, 5, 5);
+    private static final LocalDate WEATHER_DATE = LocalDate.of(2021, 5, 6);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(WeatherApplication.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:cluster;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "cluster.node-id=" + nodeId,
+                        "cluster.invalidation.enabled=true",
+                        "cluster.invalidation.poll-interval=50ms")
+                .run();
+    }
+
+    @Test
+    @DisplayName("한 노드가 잡은 예약 작업 잠금은 다른 노드가 얻지 못하고, lock-at-least-for 가 지나야 풀린다")
+    void schedulerLockTest() {
+        // given
+        SchedulerLock lockA = nodeA.getBean(SchedulerLock.class);
+        SchedulerLock lockB = nodeB.getBean(SchedulerLock.class);
+        String name = "cluster-test-" + System.nanoTime();
+
+        // when
+        String insideA = lockA.runLocked(name, Duration.ofMinutes(10), Duration.ZERO,
+                () -> lockB.runLocked(name, Duration.ofMinutes(10), Duration.ZERO, () -> "b") == null ? "a" : "both");
+        String afterA = lockB.runLocked(name, Duration.ofMinutes(10), Duration.ofMinutes(10), () -> "b");
+        String whileHeld = lockA.runLocked(name, Duration.ofMinutes(10), Duration.ZERO, () -> "a");
+
+        // then
+        assertEquals("a", insideA);
+        assertEquals("b", afterA);
+        assertNull(whileHeld);
+    }
+
+    @Test
+    @DisplayName("한 노드에서 수정한 일기는 다른 노드의 버전과 검색 색인에 반영된다")
+    void diaryInvalidationTest() throws Exception {
+        // given
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(DIARY_DATE));
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(DIARY_DATE), "Clear", "01d", 280.0, "처음 내용");
+        DiaryVersions versionsB = nodeB.getBean(DiaryVersions.class);
+        DiarySearchIndex indexB = nodeB.getBean(DiarySearchIndex.class);
+        long seqBefore = versionsB.of(DIARY_DATE).getSeq();
+
+        // when
+        nodeA.getBean(DiaryService.class).updateDiary(DIARY_DATE, "클러스터 너머의 수정");
+
+        // then
+        await(() -> versionsB.of(DIARY_DATE).getSeq() > seqBefore);
+        await(() -> !indexB.search("클러스터", DIARY_DATE, DIARY_DATE, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("한 노드가 저장한 날씨는 다른 노드의 날씨 캐시에서 지워지고 기간 통계에 들어간다")
+    void weatherInvalidationTest() throws Exception {
+        // given
+        DateWeatherCache cacheB = nodeB.getBean(DateWeatherCache.class);
+        WeatherSeries seriesB = nodeB.getBean(WeatherSeries.class);
+        DateWeather cached = new DateWeather();
+        cached.setDate(WEATHER_DATE);
+        cached.setWeather("Rain");
+        cacheB.put(cached);
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(WEATHER_DATE));
+        jdbcTemplate.update("insert into date_weather(date, weather, icon, temperature) values(?,?,?,?)",
+                Date.valueOf(WEATHER_DATE), "Snow", "13d", 270.0);
+
+        // when
+        nodeA.getBean(CacheInvalidation.class).publishWeather(WEATHER_DATE);
+
+        // then
+        await(() -> cacheB.getIfPresent(WEATHER_DATE) == null);
+        await(() -> seriesB.stats(WEATHER_DATE, WEATHER_DATE).getDays() == 1);
+        assertEquals(1, seriesB.stats(WEATHER_DATE, WEATHER_DATE).getConditions().get("Snow").intValue());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package zb.weather;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import zb.weather.datasource.ConnectionHoldTracker;
+import zb.weather.datasource.Workload;
+import zb.weather.datasource.WorkloadRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    private static final String WEB_URL = "jdbc:h2:mem:pool_web;DB_CLOSE_DELAY=-1";
+    private static final String SCHEDULER_URL = "jdbc:h2:mem:pool_scheduler;DB_CLOSE_DELAY=-1";
+
+    @Test
+    @DisplayName("스레드의 Workload 로 풀을 고르고, 풀이 없는 Workload 는 요청 처리 풀을 쓴다")
+    void routingTest() throws Exception {
+        // given
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(
+                new DriverManagerDataSource(WEB_URL, "sa", ""),
+                Collections.singletonMap(Workload.SCHEDULER, new DriverManagerDataSource(SCHEDULER_URL, "sa", "")));
+        routing.afterPropertiesSet();
+
+        // when, then
+        assertEquals("pool_web", database(routing));
+        try (Workload.Scope ignored = Workload.enter(Workload.SCHEDULER)) {
+            assertEquals("pool_scheduler", database(routing));
+            try (Workload.Scope nested = Workload.enter(Workload.BACKFILL)) {
+                assertEquals("pool_web", database(routing));
+            }
+            assertEquals("pool_scheduler", database(routing));
+        }
+        assertEquals(Workload.WEB, Workload.current());
+    }
+
+    @Test
+    @DisplayName("커넥션 점유 시간을 잡은 메서드와 Workload 별로 남기고 오래 잡은 커넥션을 센다")
+    void holdTest() throws Exception {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConnectionHoldTracker tracker = new ConnectionHoldTracker(true, Duration.ofMillis(50), Duration.ofMinutes(1));
+        tracker.bindTo(registry);
+        DataSource dataSource = tracker.track(new DriverManagerDataSource(WEB_URL, "sa", ""));
+
+        // when
+        String previous = ConnectionHoldTracker.enter("DiaryService.createDiary");
+        try (Workload.Scope ignored = Workload.enter(Workload.BACKFILL)) {
+            Connection connection = dataSource.getConnection();
+            assertEquals(1, tracker.getOpenCount());
+            Thread.sleep(60);
+            connection.close();
+            connection.close();
+        } finally {
+            ConnectionHoldTracker.exit(previous);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("select 1");
+        }
+
+        // then
+        assertEquals(0, tracker.getOpenCount());
+        assertEquals(1, registry.get("db.connection.hold")
+                .tag("holder", "DiaryService.createDiary").tag("workload", "backfill").timer().count());
+        assertEquals(1, registry.get("db.connection.hold")
+                .tag("holder", ConnectionHoldTracker.OTHER).tag("workload", "web").timer().count());
+        assertEquals(1, registry.get("db.connection.long-holds").counter().count());
+    }
+
+    private static String database(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring("jdbc:h2:mem:".length()).split(";")[0];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zb.weather.domain.DateWeather;
+import zb.weather.service.DateWeatherCache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateWeatherCacheTest {
+
+    @Test
+    @DisplayName("같은 날짜의 동시 miss 는 한 번만 로딩")
+    void singleFlightLoadTest() throws Exception {
+        // given
+        DateWeatherCache cache = new DateWeatherCache(100, Duration.ofHours(1), Duration.ofSeconds(30));
+        LocalDate date = LocalDate.of(2024, 11, 29);
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // when
+        List<Future<DateWeather>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(date, d -> {
+                    loadCount.incrementAndGet();
+                    sleep(100);
+                    return dateWeather(d);
+                });
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<DateWeather> result : results) {
+            assertEquals(date, result.get(5, TimeUnit.SECONDS).getDate());
+        }
+        executor.shutdown();
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(15, cache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("put 한 값은 로딩 없이 조회")
+    void putThenGetTest() {
+        // given
+        DateWeatherCache cache = new DateWeatherCache(100, Duration.ofHours(1), Duration.ofSeconds(30));
+        LocalDate date = LocalDate.of(2024, 11, 29);
+        cache.put(dateWeather(date));
+
+        // when
+        DateWeather found = cache.get(date, d -> {
+            throw new IllegalStateException("should not load");
+        });
+
+        // then
+        assertEquals("Clear", found.getWeather());
+        assertEquals(0, cache.stats().loadCount());
+    }
+
+    private static DateWeather dateWeather(LocalDate date) {
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setDate(date);
+        dateWeather.setWeather("Clear");
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(280.5);
+        return dateWeather;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package zb.weather;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tomcat 워커를 TOMCAT_THREADS 개로 묶어 두고 느린 외부 API 뒤에서 일기를 동시에 생성한다.
+ * blocking 모드라면 외부 API 동시 호출 수가 워커 수를 넘을 수 없다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "diary.execution.mode=async",
+        "diary.execution.pool-size=128",
+        "server.tomcat.threads.max=8",
+        "weather.http.max-connections=128"
+})
+@ActiveProfiles("h2")
+public class DiaryAsyncLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryAsyncLoadTest.class);
+    private static final int TOMCAT_THREADS = 8;
+    private static final int REQUESTS = 64;
+    private static final long UPSTREAM_DELAY_MILLIS = 300;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2021, 3, 1);
+
+    private static HttpServer server;
+    private static ExecutorService serverExecutor;
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void stubApiProperties(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/timemachine", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(UPSTREAM_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = ("{\"data\":[{\"temp\":275.0,"
+                    + "\"weather\":[{\"main\":\"Clouds\",\"icon\":\"03d\"}]}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(REQUESTS * 2);
+        server.setExecutor(serverExecutor);
+        server.start();
+        registry.add("openweathermap.history-url",
+                () -> "http://127.0.0.1:" + server.getAddress().getPort() + "/timemachine?appid=");
+    }
+
+    @AfterAll
+    static void stopStubServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("async 모드 - 느린 외부 API 호출이 Tomcat 워커 수보다 많이 겹친다")
+    void concurrencyScalesBeyondTomcatThreadsTest() throws Exception {
+        // given
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDate date = FIRST_DATE.plusDays(i);
+            statuses.add(clients.submit(() -> {
+                start.await();
+                return post("/create/diary?date=" + date, "load test");
+            }));
+        }
+
+        // when
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<Integer> status : statuses) {
+            assertEquals(201, status.get(30, TimeUnit.SECONDS).intValue());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        clients.shutdown();
+
+        // then
+        long blockingLowerBound = (long) Math.ceil((double) REQUESTS / TOMCAT_THREADS) * UPSTREAM_DELAY_MILLIS;
+        logger.info("[async] {} requests in {}ms, max upstream concurrency {} (blocking lower bound {}ms)",
+                REQUESTS, elapsedMillis, maxInFlight.get(), blockingLowerBound);
+        assertTrue(maxInFlight.get() > TOMCAT_THREADS, "max upstream concurrency " + maxInFlight.get());
+        assertTrue(elapsedMillis < blockingLowerBound, "elapsed " + elapsedMillis + "ms");
+    }
+
+    private int post(String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/plain; charset=UTF-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package zb.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import zb.weather.domain.DateWeather;
+import zb.weather.dto.BulkCreateResult;
+import zb.weather.dto.DiaryRequest;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.repository.JdbcDiaryRepository;
+import zb.weather.service.DiaryService;
+import zb.weather.service.WeatherApiClient;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "diary.bulk.batch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class DiaryBulkCreateTest {
+    private static final LocalDate DATE = LocalDate.of(2019, 5, 5);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DateWeatherRepository dateWeatherRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @SpyBean
+    JdbcDiaryRepository jdbcDiaryRepository;
+    @MockBean
+    WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setDate(DATE);
+        dateWeather.setWeather("Clear");
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(285.0);
+        dateWeatherRepository.save(dateWeather);
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(DATE));
+        clearInvocations(jdbcDiaryRepository);
+    }
+
+    @Test
+    @DisplayName("날짜나 내용이 없는 항목만 실패로 표시하고 나머지는 요청 순서대로 저장")
+    void invalidItemsTest() throws Exception {
+        // given
+        String body = "[{\"date\":\"2019-05-05\",\"text\":\"a\"},"
+                + "{\"date\":\"2019-05-05\"},"
+                + "{\"text\":\"no date\"},"
+                + "{\"date\":\"2019-05-05\",\"text\":\"b\"}]";
+
+        // when
+        MvcResult started = mockMvc.perform(post("/create/diaries")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        JsonNode result = new ObjectMapper().readTree(response);
+        assertEquals(4, result.get("requested").asInt());
+        assertEquals(2, result.get("created").asInt());
+        assertEquals(2, result.get("failed").asInt());
+        assertTrue(result.get("elapsedMillis").asLong() >= 0);
+        JsonNode items = result.get("items");
+        assertTrue(items.get(0).get("created").asBoolean());
+        assertFalse(items.get(1).get("created").asBoolean());
+        assertEquals("date and text are required", items.get(1).get("error").asText());
+        assertFalse(items.get(2).get("created").asBoolean());
+        assertTrue(items.get(3).get("created").asBoolean());
+        assertEquals(3, items.get(3).get("index").asInt());
+        assertEquals(2, countDiaries());
+    }
+
+    @Test
+    @DisplayName("한 배치가 실패해도 그 배치 항목만 실패하고 다음 배치는 저장")
+    void failedBatchTest() {
+        // given
+        doThrow(new DataIntegrityViolationException("boom"))
+                .doCallRealMethod()
+                .when(jdbcDiaryRepository).saveAll(anyList());
+        List<DiaryRequest> requests = Arrays.asList(
+                new DiaryRequest(DATE, "1"), new DiaryRequest(DATE, "2"),
+                new DiaryRequest(DATE, "3"), new DiaryRequest(DATE, "4"),
+                new DiaryRequest(DATE, "5"));
+
+        // when
+        BulkCreateResult result = diaryService.createDiaries(requests);
+
+        // then
+        verify(jdbcDiaryRepository, times(3)).saveAll(anyList());
+        assertEquals(5, result.getRequested());
+        assertEquals(3, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertFalse(result.getItems().get(0).isCreated());
+        assertEquals("Failed to save diary batch", result.getItems().get(1).getError());
+        assertTrue(result.getItems().get(2).isCreated());
+        assertTrue(result.getItems().get(4).isCreated());
+        assertTrue(result.getElapsedMillis() >= 0);
+        assertEquals(3, countDiaries());
+    }
+
+    private int countDiaries() {
+        return jdbcTemplate.queryForObject("select count(*) from diary where date = ?", Integer.class,
+                Date.valueOf(DATE));
+    }
+}
@@ -0,0 +1,199 @@
+package zb.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+import zb.weather.controller.DiaryController;
+import zb.weather.service.DiaryJsonCache;
+import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryVersions;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class DiaryConditionalGetTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 7, 7);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DiaryVersions diaryVersions;
+    @Autowired
+    DiaryJsonCache diaryJsonCache;
+    @SpyBean
+    DiaryService diaryService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(DATE), "Clear", "01d", 280.0, "first");
+        // 서비스를 거치지 않고 바꿨으므로 버전을 직접 올린다.
+        diaryVersions.bump(DATE);
+    }
+
+    @Test
+    @DisplayName("ETag 가 같으면 DB 조회 없이 304")
+    void notModifiedWithoutQueryTest() throws Exception {
+        // given
+        String etag = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(diaryService);
+
+        // when, then
+        mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(diaryService, never()).readDiary(any());
+    }
+
+    @Test
+    @DisplayName("수정하면 날짜와 그 날짜를 포함한 기간의 ETag 가 바뀐다")
+    void updateChangesETagTest() throws Exception {
+        // given
+        String dayEtag = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String rangeEtag = mockMvc.perform(get("/read/diaries")
+                        .param("startDate", DATE.minusDays(3).toString())
+                        .param("endDate", DATE.plusDays(3).toString()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        diaryService.updateDiary(DATE, "second");
+
+        // then
+        String newDayEtag = mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, dayEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/read/diaries")
+                        .param("startDate", DATE.minusDays(3).toString())
+                        .param("endDate", DATE.plusDays(3).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, rangeEtag))
+                .andExpect(status().isOk());
+        assertNotEquals(dayEtag, newDayEtag);
+    }
+
+    @Test
+    @DisplayName("버전이 같으면 조회 없이 직렬화된 JSON 캐시에서 응답하고, 수정 후에는 다시 조회")
+    void serializedJsonCacheTest() throws Exception {
+        // given
+        String first = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andReturn().getResponse().getContentAsString();
+        long savedBefore = diaryJsonCache.bytesSaved();
+        clearInvocations(diaryService);
+
+        // when
+        String cached = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andReturn().getResponse().getContentAsString();
+        diaryService.updateDiary(DATE, "second");
+        String updated = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertEquals(first, cached);
+        assertTrue(diaryJsonCache.bytesSaved() > savedBefore);
+        assertTrue(updated.contains("second"));
+        verify(diaryService, times(1)).readDiary(any());
+    }
+
+    @Test
+    @DisplayName("Accept 와 Accept-Encoding 에 따라 묶음 형식과 gzip 으로 응답하고 ETag 를 구분")
+    void groupedGzipTest() throws Exception {
+        // given
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longText.append("long diary ");
+        }
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(DATE), "Clear", "01d", 280.0, longText.toString());
+        diaryVersions.bump(DATE);
+
+        // when
+        MockHttpServletResponse plain = mockMvc.perform(get("/read/diary").param("date", DATE.toString()))
+                .andReturn().getResponse();
+        MockHttpServletResponse grouped = mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                        .header(HttpHeaders.ACCEPT, DiaryController.APPLICATION_DIARY_GROUPED.toString()))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, DiaryController.APPLICATION_DIARY_GROUPED.toString()))
+                .andReturn().getResponse();
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        // then
+        JsonNode groups = new ObjectMapper().readTree(grouped.getContentAsByteArray());
+        assertEquals(1, groups.size());
+        assertEquals("Clear", groups.get(0).get("weather").asText());
+        assertEquals(2, groups.get(0).get("diaries").size());
+        assertFalse(groups.get(0).get("diaries").get(0).has("weather"));
+
+        byte[] unzipped = StreamUtils.copyToByteArray(
+                new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray())));
+        assertArrayEquals(plain.getContentAsByteArray(), unzipped);
+        assertTrue(gzipped.getContentAsByteArray().length < unzipped.length);
+
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), grouped.getHeader(HttpHeaders.ETAG));
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), gzipped.getHeader(HttpHeaders.ETAG));
+        assertTrue(plain.getHeader(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Accept-Encoding 의 q 값을 따르고 gzip;q=0 이면 압축하지 않는다")
+    void gzipQualityTest() throws Exception {
+        // given
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longText.append("long diary ");
+        }
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(DATE), "Clear", "01d", 280.0, longText.toString());
+        diaryVersions.bump(DATE);
+
+        // when, then
+        for (String refused : new String[]{"gzip;q=0", "deflate, gzip; q=0.0", "*;q=1, gzip;q=0", "gzipped", "*;q=0"}) {
+            mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                            .header(HttpHeaders.ACCEPT_ENCODING, refused))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        }
+        for (String accepted : new String[]{"GZIP", "gzip;q=0.5, identity", "br, *;q=0.1", "deflate, gzip ; q=1"}) {
+            mockMvc.perform(get("/read/diary").param("date", DATE.toString())
+                            .header(HttpHeaders.ACCEPT_ENCODING, accepted))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package zb.weather;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import zb.weather.domain.DateWeather;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.repository.DiaryRepository;
+import zb.weather.service.DiaryService;
+import zb.weather.service.WeatherApiClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class DiaryCreateConcurrencyTest {
+    private static final Logger logger = LoggerFactory.getLogger(DiaryCreateConcurrencyTest.class);
+    private static final LocalDate START = LocalDate.of(2024, 11, 1);
+    private static final int DATES = 10;
+
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DiaryRepository diaryRepository;
+    @Autowired
+    DateWeatherRepository dateWeatherRepository;
+    @MockBean
+    WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        diaryRepository.deleteAll();
+        for (int i = 0; i < DATES; i++) {
+            DateWeather dateWeather = new DateWeather();
+            dateWeather.setDate(START.plusDays(i));
+            dateWeather.setWeather("Clear");
+            dateWeather.setIcon("01d");
+            dateWeather.setTemperature(280.0 + i);
+            dateWeatherRepository.save(dateWeather);
+        }
+    }
+
+    @Test
+    @DisplayName("같은 날짜와 서로 다른 날짜에 동시 생성 - 처리량과 데드락 수")
+    void concurrentCreateTest() throws Exception {
+        // given
+        int threads = 32;
+        int creates = 800;
+        AtomicInteger deadlocks = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < creates; i++) {
+            // 절반은 모두 같은 날짜, 나머지 절반은 10개 날짜에 나누어 생성
+            LocalDate date = i % 2 == 0 ? START : START.plusDays(i % DATES);
+            String text = "diary " + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    diaryService.createDiary(date, text, null);
+                } catch (RuntimeException e) {
+                    if (isLockFailure(e)) {
+                        deadlocks.incrementAndGet();
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+
+        // then
+        logger.info("creates={} threads={} elapsed={}ms throughput={}/s deadlocks={} failures={}",
+                creates, threads, elapsedMillis, Math.round(creates * 1000.0 / Math.max(1, elapsedMillis)),
+                deadlocks.get(), failures.get());
+        assertEquals(0, deadlocks.get());
+        assertEquals(0, failures.get());
+        assertEquals(creates, diaryRepository.count());
+    }
+
+    @Test
+    @DisplayName("같은 멱등성 키로 동시에 요청하면 한 번만 저장")
+    void idempotentCreateTest() throws Exception {
+        // given
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (diaryService.createDiary(START, "retried diary", "request-1")) {
+                    created.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, created.get());
+        assertEquals(1, diaryRepository.count());
+    }
+
+    private static boolean isLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockingFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,145 @@
+package zb.weather;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import zb.weather.repository.DiaryRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DiaryRepository 가 실제로 만드는 SQL 을 Hibernate StatementInspector 로 잡아 H2 EXPLAIN 으로
+ * (date, id) 인덱스를 타는지 확인한다. 바인드 파라미터는 호출에 넘긴 값과 같은 값을 순서대로 채운다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "zb.weather.DiaryIndexExplainTest$SqlCapture")
+@ActiveProfiles("h2")
+public class DiaryIndexExplainTest {
+    private static final String DATE_INDEX = "IX_DIARY_DATE_ID";
+    private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate MARCH_5 = LocalDate.of(2024, 3, 5);
+    private static final LocalDate MARCH_31 = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DiaryRepository diaryRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from diary");
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{Date.valueOf(start.plusDays(i % 365)), "Clear", "01d", 280.0, "diary " + i});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)", rows);
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("findAllByDate 는 인덱스 사용")
+    void findAllByDateUsesIndexTest() {
+        diaryRepository.findAllByDate(MARCH_1);
+        assertUsesDateIndex(capturedDiarySql(), "'2024-03-01'");
+    }
+
+    @Test
+    @DisplayName("findAllByDateBetween 은 인덱스 범위 스캔")
+    void findAllByDateBetweenUsesIndexTest() {
+        diaryRepository.findAllByDateBetween(MARCH_1, MARCH_31);
+        assertUsesDateIndex(capturedDiarySql(), "'2024-03-01'", "'2024-03-31'");
+    }
+
+    @Test
+    @DisplayName("updateFirstTextByDate 는 인덱스 사용")
+    void updateFirstTextByDateUsesIndexTest() {
+        transactionTemplate.execute(status -> diaryRepository.updateFirstTextByDate(MARCH_1, "updated"));
+        assertUsesDateIndex(capturedDiarySql(), "'updated'", "'2024-03-01'");
+    }
+
+    @Test
+    @DisplayName("deleteAllInBulkByDate 는 인덱스 사용")
+    void deleteAllInBulkByDateUsesIndexTest() {
+        transactionTemplate.execute(status -> diaryRepository.deleteAllInBulkByDate(MARCH_1));
+        assertUsesDateIndex(capturedDiarySql(), "'2024-03-01'");
+    }
+
+    @Test
+    @DisplayName("키셋 페이지 조회는 인덱스 사용")
+    void keysetPageUsesIndexTest() {
+        diaryRepository.findPageAfter(MARCH_1, MARCH_31, MARCH_5, 10, PageRequest.of(0, 101));
+        assertUsesDateIndex(capturedDiarySql(),
+                "'2024-03-01'", "'2024-03-31'", "'2024-03-05'", "'2024-03-05'", "10", "101");
+    }
+
+    @Test
+    @DisplayName("스트리밍 조회는 인덱스 범위 스캔")
+    void streamUsesIndexTest() {
+        transactionTemplate.execute(status -> {
+            try (Stream<?> diaries = diaryRepository.streamAllByDateBetween(MARCH_1, MARCH_31)) {
+                return diaries.count();
+            }
+        });
+        assertUsesDateIndex(capturedDiarySql(), "'2024-03-01'", "'2024-03-31'");
+    }
+
+    /**
+     * 호출 중에 잡힌 diary 테이블 SQL 이 정확히 하나여야 한다.
+     */
+    private static String capturedDiarySql() {
+        List<String> diarySql = new ArrayList<>();
+        for (String sql : SqlCapture.STATEMENTS) {
+            String normalized = sql.toLowerCase(Locale.ROOT);
+            if (normalized.matches("(?s).*\\bdiary\\b.*") && !normalized.contains("diary_rollup")) {
+                diarySql.add(sql);
+            }
+        }
+        assertEquals(1, diarySql.size(), diarySql.toString());
+        return diarySql.get(0);
+    }
+
+    private void assertUsesDateIndex(String sql, String... parameters) {
+        StringBuilder bound = new StringBuilder();
+        int next = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                assertTrue(next < parameters.length, sql);
+                bound.append(parameters[next++]);
+            } else {
+                bound.append(c);
+            }
+        }
+        assertEquals(parameters.length, next, sql);
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + bound, String.class));
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains(DATE_INDEX), plan);
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package zb.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import zb.weather.domain.Diary;
+import zb.weather.dto.DiaryCursor;
+import zb.weather.dto.DiaryPage;
+import zb.weather.error.InvalidCursor;
+import zb.weather.service.DiaryService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class DiaryPagingTest {
+    private static final LocalDate FIRST = LocalDate.of(2019, 3, 1);
+    private static final LocalDate SECOND = LocalDate.of(2019, 3, 2);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DiaryService diaryService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from diary where date between ? and ?", Date.valueOf(FIRST), Date.valueOf(SECOND));
+        // 같은 날짜에 여러 일기가 있어야 (date, id) 키셋이 날짜 안에서 id 로 이어지는지 확인할 수 있다.
+        for (int i = 0; i < 5; i++) {
+            insert(FIRST, "first-" + i);
+        }
+        for (int i = 0; i < 2; i++) {
+            insert(SECOND, "second-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("커서는 문자열로 바꿨다가 다시 읽어도 같은 위치를 가리킨다")
+    void cursorRoundTripTest() {
+        // given
+        DiaryCursor cursor = new DiaryCursor(FIRST, 42);
+
+        // when
+        DiaryCursor parsed = DiaryCursor.parse(cursor.toString());
+
+        // then
+        assertEquals("2019-03-01:42", cursor.toString());
+        assertEquals(FIRST, parsed.getDate());
+        assertEquals(42, parsed.getId());
+        assertThrows(InvalidCursor.class, () -> DiaryCursor.parse("2019-03-01"));
+        assertThrows(InvalidCursor.class, () -> DiaryCursor.parse("2019-13-01:1"));
+        assertThrows(InvalidCursor.class, () -> DiaryCursor.parse("2019-03-01:abc"));
+    }
+
+    @Test
+    @DisplayName("잘못된 커서는 400")
+    void invalidCursorTest() throws Exception {
+        mockMvc.perform(get("/read/diaries/page")
+                        .param("startDate", FIRST.toString())
+                        .param("endDate", SECOND.toString())
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("같은 날짜의 일기가 페이지 경계에 걸려도 빠지거나 겹치지 않고, 마지막 페이지에는 nextCursor 가 없다")
+    void pageThroughTest() {
+        // given
+        List<Integer> expected = jdbcTemplate.queryForList(
+                "select id from diary where date between ? and ? order by date, id", Integer.class,
+                Date.valueOf(FIRST), Date.valueOf(SECOND));
+
+        // when
+        List<Integer> read = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        DiaryCursor cursor = null;
+        do {
+            DiaryPage page = diaryService.readDiariesPage(FIRST, SECOND, cursor, 2);
+            for (Diary diary : page.getDiaries()) {
+                read.add(diary.getId());
+            }
+            cursors.add(page.getNextCursor());
+            cursor = page.getNextCursor() == null ? null : DiaryCursor.parse(page.getNextCursor());
+        } while (cursor != null);
+
+        // then
+        assertEquals(7, expected.size());
+        assertEquals(expected, read);
+        assertEquals(4, cursors.size());
+        assertNull(cursors.get(3));
+        assertNull(diaryService.readDiariesPage(FIRST, SECOND, null, 7).getNextCursor());
+        assertNotNull(diaryService.readDiariesPage(FIRST, SECOND, null, 6).getNextCursor());
+    }
+
+    @Test
+    @DisplayName("HTTP 페이지 응답도 마지막 페이지에서는 nextCursor 를 비운다")
+    void lastPageOverHttpTest() throws Exception {
+        // when
+        String body = mockMvc.perform(get("/read/diaries/page")
+                        .param("startDate", FIRST.toString())
+                        .param("endDate", SECOND.toString())
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        JsonNode page = new ObjectMapper().readTree(body);
+        assertEquals(7, page.get("diaries").size());
+        assertTrue(page.get("nextCursor") == null || page.get("nextCursor").isNull());
+    }
+
+    @Test
+    @DisplayName("NDJSON 스트림은 기간 내 일기 한 건당 한 줄")
+    void streamLineCountTest() throws Exception {
+        // given
+        MvcResult started = mockMvc.perform(get("/read/diaries/stream")
+                        .param("startDate", FIRST.toString())
+                        .param("endDate", SECOND.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        String[] lines = body.split("\n");
+        assertEquals(7, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("first-0", objectMapper.readTree(lines[0]).get("text").asText());
+        assertEquals("second-1", objectMapper.readTree(lines[6]).get("text").asText());
+    }
+
+    private void insert(LocalDate date, String text) {
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(date), "Clear", "01d", 280.0, text);
+    }
+}
@@ -0,0 +1,83 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zb.weather.domain.Diary;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.search.DiaryTokenizer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiarySearchIndexTest {
+    private static final LocalDate JUNE_1 = LocalDate.of(2024, 6, 1);
+    private static final LocalDate JUNE_2 = LocalDate.of(2024, 6, 2);
+
+    @Test
+    @DisplayName("한글은 1-gram, 2-gram 으로 색인하고 영문은 소문자 단어로 색인")
+    void tokenizerTest() {
+        assertEquals(Arrays.asList("비", "가", "비가", "jmh", "10"),
+                Arrays.asList(DiaryTokenizer.indexTokens("비가 JMH 10").toArray()));
+        assertEquals(Arrays.asList("우산", "산을"),
+                Arrays.asList(DiaryTokenizer.queryTokens("우산을").toArray()));
+        assertEquals(Arrays.asList("rain", "비", "우산을"),
+                Arrays.asList(DiaryTokenizer.queryTerms("Rain! 비, (우산을)").toArray()));
+    }
+
+    @Test
+    @DisplayName("본문, 기간, 날씨로 찾고 날짜 단위 교체와 삭제를 반영")
+    void searchTest() {
+        // given
+        DiarySearchIndex index = new DiarySearchIndex();
+        index.add(diary(1, JUNE_1, "Rain", "비가 와서 우산을 챙겼다"));
+        index.add(diary(2, JUNE_2, "Clear", "우산 없이 산책했다"));
+        index.add(diary(3, JUNE_2, "Clear", "맑은 날 자전거"));
+
+        // when, then
+        assertEquals(Arrays.asList(1, 2), index.search("우산", null, null, null));
+        assertEquals(Collections.singletonList(1), index.search("우산", null, null, "rain"));
+        assertEquals(Collections.singletonList(2), index.search("우산", JUNE_2, JUNE_2, null));
+        assertEquals(Collections.singletonList(1), index.search("비", null, null, null));
+        assertTrue(index.search("눈사람", null, null, null).isEmpty());
+
+        index.replaceDate(JUNE_2, Collections.singletonList(diary(3, JUNE_2, "Clear", "우산을 잃어버렸다")));
+        assertEquals(Arrays.asList(1, 3), index.search("우산", null, null, null));
+
+        index.removeDate(JUNE_1);
+        index.updateWeather(JUNE_2, "Rain");
+        assertEquals(Collections.singletonList(3), index.search("우산", null, null, "Rain"));
+        assertEquals(1, index.documentCount());
+    }
+
+    @Test
+    @DisplayName("재구성 중 바뀐 날짜는 스트림의 이전 행으로 덮어쓰지 않는다")
+    void rebuildTest() {
+        // given
+        DiarySearchIndex index = new DiarySearchIndex();
+        index.add(diary(1, JUNE_1, "Rain", "예전 색인"));
+        index.beginRebuild();
+
+        // when
+        index.replaceDate(JUNE_1, Collections.singletonList(diary(1, JUNE_1, "Rain", "새로 고친 내용")));
+        index.rebuildAdd(diary(1, JUNE_1, "Rain", "예전 내용"));
+        index.rebuildAdd(diary(2, JUNE_2, "Clear", "다른 날 내용"));
+        index.finishRebuild(true);
+
+        // then
+        assertEquals(Collections.singletonList(1), index.search("고친", null, null, null));
+        assertTrue(index.search("예전", null, null, null).isEmpty());
+        assertEquals(Arrays.asList(1, 2), index.search("내용", null, null, null));
+    }
+
+    private static Diary diary(int id, LocalDate date, String weather, String text) {
+        Diary diary = new Diary();
+        diary.setId(id);
+        diary.setDate(date);
+        diary.setWeather(weather);
+        diary.setText(text);
+        return diary;
+    }
+}
@@ -0,0 +1,145 @@
+package zb.weather;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import zb.weather.cluster.SchedulerLock;
+import zb.weather.domain.DateWeather;
+import zb.weather.dto.DiaryRequest;
+import zb.weather.dto.DiaryStats;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryStatsService;
+import zb.weather.service.WeatherApiClient;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "diary.rollup.lock-at-least-for=0s")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class DiaryStatsTest {
+    private static final LocalDate JAN_15 = LocalDate.of(2023, 1, 15);
+    private static final LocalDate FEB_10 = LocalDate.of(2023, 2, 10);
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 2, 28);
+
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DiaryStatsService diaryStatsService;
+    @Autowired
+    DateWeatherRepository dateWeatherRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    SchedulerLock schedulerLock;
+    @Autowired
+    MockMvc mockMvc;
+    @MockBean
+    WeatherApiClient weatherApiClient;
+
+    @BeforeEach
+    void setUp() {
+        saveWeather(JAN_15, "Snow", 270.0);
+        saveWeather(FEB_10, "Clear", 275.0);
+        diaryService.deleteDiary(JAN_15);
+        diaryService.deleteDiary(FEB_10);
+    }
+
+    @Test
+    @DisplayName("일기 생성, 대량 생성, 삭제가 월별 집계에 바로 반영")
+    void incrementalTest() {
+        // given
+        diaryService.createDiary(JAN_15, "눈사람을 만들었다", null);
+        diaryService.createDiary(JAN_15, "눈이 그쳤다", null);
+        diaryService.createDiaries(Arrays.asList(
+                new DiaryRequest(FEB_10, "맑음"), new DiaryRequest(FEB_10, "산책")));
+
+        // when
+        DiaryStats stats = diaryStatsService.stats(START, END);
+
+        // then
+        assertEquals(4, stats.getTotal().getDiaries());
+        assertEquals(2, stats.getTotal().getDiaryDays());
+        assertEquals(272.5, stats.getTotal().getAvgTemperature());
+        assertEquals(2, stats.getTotal().getConditions().get("Snow").intValue());
+        assertEquals(2, stats.getMonths().size());
+        assertEquals("2023-01", stats.getMonths().get(0).getMonth());
+        assertEquals(2, stats.getMonths().get(0).getDiaries());
+        assertEquals(270.0, stats.getMonths().get(0).getAvgTemperature());
+        assertEquals(2, stats.getMonths().get(1).getConditions().get("Clear").intValue());
+
+        diaryService.deleteDiary(JAN_15);
+        DiaryStats afterDelete = diaryStatsService.stats(START, END);
+        assertEquals(2, afterDelete.getTotal().getDiaries());
+        assertEquals(1, afterDelete.getMonths().size());
+        assertEquals("2023-02", afterDelete.getMonths().get(0).getMonth());
+    }
+
+    @Test
+    @DisplayName("어긋난 집계는 rebuild 로 diary 에서 다시 만든다")
+    void rebuildTest() {
+        // given
+        diaryService.createDiary(FEB_10, "맑음", null);
+        jdbcTemplate.update("update diary_rollup set diary_count = 100 where date = ?", Date.valueOf(FEB_10));
+
+        // when
+        diaryStatsService.rebuild();
+        DiaryStats stats = diaryStatsService.stats(START, END);
+
+        // then
+        assertEquals(1, stats.getTotal().getDiaries());
+        assertEquals(275.0, stats.getTotal().getAvgTemperature());
+        assertNull(diaryStatsService.stats(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31))
+                .getTotal().getAvgTemperature());
+    }
+
+    @Test
+    @DisplayName("다른 노드가 rebuild 잠금을 잡고 있으면 POST /diary/stats/rebuild 는 실행하지 않고 409")
+    void rebuildEndpointUsesSchedulerLockTest() throws Exception {
+        // given
+        diaryService.createDiary(FEB_10, "맑음", null);
+        jdbcTemplate.update("update diary_rollup set diary_count = 100 where date = ?", Date.valueOf(FEB_10));
+        long lockedAt = System.currentTimeMillis();
+        assertTrue(schedulerLock.tryLock("diary-rollup-rebuild", lockedAt, Duration.ofMinutes(1)));
+
+        try {
+            // when, then
+            mockMvc.perform(post("/diary/stats/rebuild"))
+                    .andExpect(status().isConflict());
+            assertEquals(100, diaryStatsService.stats(START, END).getTotal().getDiaries());
+        } finally {
+            schedulerLock.unlock("diary-rollup-rebuild", lockedAt, Duration.ZERO);
+        }
+
+        // when, then
+        String rows = mockMvc.perform(post("/diary/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(Integer.parseInt(rows) > 0);
+        assertEquals(1, diaryStatsService.stats(START, END).getTotal().getDiaries());
+    }
+
+    private void saveWeather(LocalDate date, String weather, double temperature) {
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setDate(date);
+        dateWeather.setWeather(weather);
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(temperature);
+        dateWeatherRepository.save(dateWeather);
+    }
+}
@@ -0,0 +1,97 @@
+package zb.weather;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import zb.weather.repository.DiaryRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class DiaryUpdateDeleteTest {
+    private static final LocalDate BUSY = LocalDate.of(2018, 8, 8);
+    private static final LocalDate EMPTY = LocalDate.of(2018, 8, 9);
+    private static final int DIARIES = 5;
+
+    @Autowired
+    DiaryRepository diaryRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from diary where date in (?, ?)", Date.valueOf(BUSY), Date.valueOf(EMPTY));
+        for (int i = 0; i < DIARIES; i++) {
+            jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                    Date.valueOf(BUSY), "Clear", "01d", 280.0, "diary " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("updateFirstTextByDate 는 id 가 가장 작은 일기 하나만 바꾸고, 일기가 없는 날짜는 0")
+    void updateFirstTextByDateTest() {
+        // when
+        Integer updated = transactionTemplate.execute(status -> diaryRepository.updateFirstTextByDate(BUSY, "changed"));
+        Integer missing = transactionTemplate.execute(status -> diaryRepository.updateFirstTextByDate(EMPTY, "changed"));
+
+        // then
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        List<String> texts = jdbcTemplate.queryForList(
+                "select text from diary where date = ? order by id", String.class, Date.valueOf(BUSY));
+        assertEquals("changed", texts.get(0));
+        for (int i = 1; i < DIARIES; i++) {
+            assertEquals("diary " + i, texts.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("deleteAllInBulkByDate 는 그 날짜의 일기 수를 반환하고, 일기가 없는 날짜는 0")
+    void deleteAllInBulkByDateTest() {
+        // when
+        Integer missing = transactionTemplate.execute(status -> diaryRepository.deleteAllInBulkByDate(EMPTY));
+        Integer deleted = transactionTemplate.execute(status -> diaryRepository.deleteAllInBulkByDate(BUSY));
+
+        // then
+        assertEquals(0, missing);
+        assertEquals(DIARIES, deleted);
+        assertTrue(diaryRepository.findAllByDate(BUSY).isEmpty());
+    }
+
+    @Test
+    @DisplayName("수정, 삭제 API 는 바뀐 일기 수를 반환하고, 일기가 없는 날짜는 404")
+    void endpointCountTest() throws Exception {
+        // when, then
+        mockMvc.perform(put("/update/diary").param("date", BUSY.toString()).content("changed"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+        mockMvc.perform(put("/update/diary").param("date", EMPTY.toString()).content("changed"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/delete/diary").param("date", BUSY.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(DIARIES)));
+        mockMvc.perform(delete("/delete/diary").param("date", EMPTY.toString()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,93 @@
+package zb.weather;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import zb.weather.error.InvalidDiaryText;
+import zb.weather.ingest.DiaryWriteBehind;
+import zb.weather.ingest.DiaryWriteLog;
+import zb.weather.service.DiaryService;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class DiaryWriteBehindTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+    private static final String NO_WEATHER = "날씨 없음";
+
+    @TempDir
+    File dir;
+
+    @Test
+    @DisplayName("날씨를 구하지 못한 일기는 max-attempts 번 시도한 뒤 dead-letter 로 옮기고 뒤의 일기를 막지 않는다")
+    void deadLetterTest() throws Exception {
+        // given
+        DiaryService diaryService = mock(DiaryService.class);
+        when(diaryService.saveLoggedDiaries(anyList())).thenAnswer(invocation -> {
+            List<DiaryWriteLog.Entry> batch = invocation.getArgument(0);
+            return batch.stream().filter(entry -> NO_WEATHER.equals(entry.getText())).collect(Collectors.toList());
+        });
+        DiaryWriteBehind writeBehind = writeBehind(diaryService);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        writeBehind.bindTo(registry);
+        writeBehind.submit(DATE, "첫 번째", "key-1");
+        writeBehind.submit(DATE, NO_WEATHER, "key-2");
+        writeBehind.submit(DATE, "세 번째", "key-3");
+
+        // when
+        writeBehind.start();
+        await(() -> registry.get("diary.write-behind.depth").gauge().value() == 0);
+        writeBehind.destroy();
+
+        // then
+        verify(diaryService, times(2)).saveLoggedDiaries(anyList());
+        assertEquals(2, registry.get("diary.write-behind.committed").counter().count());
+        assertEquals(1, registry.get("diary.write-behind.dead-lettered").counter().count());
+        try (DiaryWriteLog deadLetter = new DiaryWriteLog(new File(dir, "dead-letter"), 4096, 100)) {
+            List<DiaryWriteLog.Entry> entries = deadLetter.peek(100, 0, TimeUnit.MILLISECONDS);
+            assertEquals(1, entries.size());
+            assertEquals(NO_WEATHER, entries.get(0).getText());
+            assertEquals("key-2", entries.get(0).getRequestId());
+        }
+    }
+
+    @Test
+    @DisplayName("text 컬럼보다 긴 일기는 로그에 기록하기 전에 거절")
+    void tooLongTest() throws Exception {
+        // given
+        DiaryWriteBehind writeBehind = writeBehind(mock(DiaryService.class));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            text.append('가');
+        }
+
+        // when, then
+        assertThrows(InvalidDiaryText.class, () -> writeBehind.submit(DATE, text.toString(), null));
+        writeBehind.submit(DATE, text.substring(1), null);
+        writeBehind.destroy();
+    }
+
+    private DiaryWriteBehind writeBehind(DiaryService diaryService) throws Exception {
+        return new DiaryWriteBehind(diaryService, true, dir.getPath(), DataSize.ofKilobytes(4), 100, 10,
+                Duration.ofMillis(10), 2);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(20);
+        }
+    }
+}
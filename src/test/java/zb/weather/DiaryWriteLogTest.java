@@ -0,0 +1,93 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import zb.weather.ingest.DiaryWriteLog;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiaryWriteLogTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+
+    @TempDir
+    File dir;
+
+    @Test
+    @DisplayName("커밋하지 않은 일기는 다시 열면 순서대로 되살아나고, 커밋한 일기와 세그먼트는 사라진다")
+    void replayTest() throws Exception {
+        // given
+        try (DiaryWriteLog log = new DiaryWriteLog(dir, 256, 100)) {
+            for (int i = 0; i < 10; i++) {
+                log.sync(log.append(DATE.plusDays(i), "일기 " + i, "key-" + i));
+            }
+            log.commit(4);
+        }
+
+        // when
+        try (DiaryWriteLog log = new DiaryWriteLog(dir, 256, 100)) {
+            List<DiaryWriteLog.Entry> pending = log.peek(100, 0, TimeUnit.MILLISECONDS);
+
+            // then
+            assertEquals(6, pending.size());
+            assertEquals(5, pending.get(0).getSeq());
+            assertEquals("일기 4", pending.get(0).getText());
+            assertEquals(DATE.plusDays(4), pending.get(0).getDate());
+            assertEquals("key-4", pending.get(0).getRequestId());
+            assertEquals(11, log.append(DATE, "다음", null));
+
+            log.commit(11);
+            assertEquals(0, log.pendingCount());
+            assertEquals(0, log.lagMillis());
+        }
+        assertEquals(1, dir.listFiles((d, name) -> name.startsWith("segment-")).length);
+    }
+
+    @Test
+    @DisplayName("기록 중 멈춘 마지막 레코드는 버리고 그 자리부터 이어 쓴다")
+    void tornTailTest() throws Exception {
+        // given
+        try (DiaryWriteLog log = new DiaryWriteLog(dir, 4096, 100)) {
+            log.sync(log.append(DATE, "첫 번째", null));
+            log.sync(log.append(DATE, "두 번째", null));
+        }
+        File segment = dir.listFiles((d, name) -> name.startsWith("segment-"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            // 두 번째 레코드의 본문 첫 바이트를 망가뜨린다. 레코드는 헤더 8 바이트와 seq, 시각, 날짜, 키 길이, 본문 길이, 본문이다.
+            long secondStart = 8 + 24 + 4 + 4 + "첫 번째".getBytes(StandardCharsets.UTF_8).length;
+            file.seek(secondStart + 8);
+            file.write(0x7f);
+        }
+
+        // when
+        try (DiaryWriteLog log = new DiaryWriteLog(dir, 4096, 100)) {
+            long seq = log.append(DATE, "세 번째", null);
+            log.sync(seq);
+            List<DiaryWriteLog.Entry> pending = log.peek(100, 0, TimeUnit.MILLISECONDS);
+
+            // then
+            assertEquals(2, seq);
+            assertEquals(2, pending.size());
+            assertEquals("첫 번째", pending.get(0).getText());
+            assertEquals("세 번째", pending.get(1).getText());
+        }
+    }
+
+    @Test
+    @DisplayName("저장을 기다리는 일기가 max-pending 개면 거절")
+    void fullTest() throws Exception {
+        try (DiaryWriteLog log = new DiaryWriteLog(dir, 4096, 2)) {
+            log.append(DATE, "a", null);
+            log.append(DATE, "b", null);
+            assertThrows(RejectedExecutionException.class, () -> log.append(DATE, "c", null));
+        }
+    }
+}
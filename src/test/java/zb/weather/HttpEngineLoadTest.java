@@ -0,0 +1,161 @@
+package zb.weather;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zb.weather.http.HttpEngine;
+import zb.weather.http.HttpEngineSettings;
+import zb.weather.http.HttpResult;
+import zb.weather.http.PooledHttpEngine;
+import zb.weather.http.UrlConnectionHttpEngine;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpEngineLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(HttpEngineLoadTest.class);
+    private static final int CALLERS = 200;
+    private static final int CALLS_PER_CALLER = 10;
+    private static final byte[] PAYLOAD = ("{\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}],"
+            + "\"main\":{\"temp\":280.5}}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void startStubServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/weather", exchange -> {
+            sleep(20);
+            exchange.sendResponseHeaders(200, PAYLOAD.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PAYLOAD);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(2000);
+            exchange.sendResponseHeaders(200, PAYLOAD.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PAYLOAD);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(CALLERS);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("200 동시 호출 - 풀 엔진 p99 지연과 스레드 사용량")
+    void pooledEngineUnderConcurrencyTest() throws Exception {
+        try (HttpEngine engine = new PooledHttpEngine(settings(Duration.ofSeconds(3), CALLERS))) {
+            long p99 = runLoad(engine, "pooled");
+            assertTrue(p99 < 3000, "p99 " + p99 + "ms");
+        }
+    }
+
+    @Test
+    @DisplayName("200 동시 호출 - JDK 엔진 p99 지연과 스레드 사용량")
+    void urlConnectionEngineUnderConcurrencyTest() throws Exception {
+        try (HttpEngine engine = new UrlConnectionHttpEngine(settings(Duration.ofSeconds(3), CALLERS))) {
+            long p99 = runLoad(engine, "jdk");
+            assertTrue(p99 < 3000, "p99 " + p99 + "ms");
+        }
+    }
+
+    @Test
+    @DisplayName("느린 응답은 total 타임아웃 안에 실패")
+    void totalTimeoutTest() throws Exception {
+        for (HttpEngine engine : Arrays.asList(
+                new PooledHttpEngine(settings(Duration.ofMillis(300), 4)),
+                new UrlConnectionHttpEngine(settings(Duration.ofMillis(300), 4)))) {
+            long start = System.nanoTime();
+            assertThrows(SocketTimeoutException.class, () -> engine.get(baseUrl + "/slow"));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis < 1000, engine.getClass().getSimpleName() + " took " + elapsedMillis + "ms");
+            engine.close();
+        }
+    }
+
+    private long runLoad(HttpEngine engine, String name) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int threadsBefore = threads.getThreadCount();
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                long[] latencies = new long[CALLS_PER_CALLER];
+                for (int j = 0; j < CALLS_PER_CALLER; j++) {
+                    long begin = System.nanoTime();
+                    HttpResult result = engine.get(baseUrl + "/weather");
+                    latencies[j] = System.nanoTime() - begin;
+                    assertEquals(200, result.getStatus());
+                    assertEquals(PAYLOAD.length, result.getBody().length());
+                }
+                return latencies;
+            }));
+        }
+        long wallStart = System.nanoTime();
+        start.countDown();
+
+        long[] all = new long[CALLERS * CALLS_PER_CALLER];
+        int index = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get(60, TimeUnit.SECONDS)) {
+                all[index++] = latency;
+            }
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+        callers.shutdown();
+
+        Arrays.sort(all);
+        long p50 = TimeUnit.NANOSECONDS.toMillis(all[all.length / 2]);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(all[(int) (all.length * 0.99) - 1]);
+        logger.info("[{}] requests={} wall={}ms p50={}ms p99={}ms threads(before={}, peak={})",
+                name, all.length, wallMillis, p50, p99, threadsBefore, threads.getPeakThreadCount());
+        return p99;
+    }
+
+    private static HttpEngineSettings settings(Duration totalTimeout, int maxConnections) {
+        return new HttpEngineSettings(Duration.ofMillis(500), Duration.ofMillis(200).plus(totalTimeout),
+                totalTimeout, maxConnections, Duration.ofSeconds(30));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
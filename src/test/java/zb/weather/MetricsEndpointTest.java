@@ -0,0 +1,82 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import zb.weather.repository.DiaryRollupRepository;
+import zb.weather.service.DiaryService;
+import zb.weather.service.WeatherApiClient;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /actuator/prometheus 에 서비스, 저장소, 외부 API 타이머와 커넥션 풀, 캐시 게이지가 실제로 노출되는지 확인한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("h2")
+public class MetricsEndpointTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 2, 2);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DiaryRollupRepository diaryRollupRepository;
+    @Autowired
+    WeatherApiClient weatherApiClient;
+
+    @Test
+    @DisplayName("Prometheus 스크레이프에 새 미터 이름이 모두 나온다")
+    void prometheusScrapeTest() throws Exception {
+        // given
+        diaryService.readDiary(DATE);
+        diaryRollupRepository.findBetween(DATE, DATE);
+        // 테스트 설정의 API 주소는 연결이 거부되므로 status=error 로 기록된다.
+        weatherApiClient.getWeatherData();
+        mockMvc.perform(get("/read/diary").param("date", DATE.toString()));
+
+        // when
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertAll(
+                () -> assertTrue(scrape.contains("diary_service_seconds_count{"), "diary.service"),
+                () -> assertTrue(scrape.contains("diary_service_seconds_bucket{"), "diary.service histogram"),
+                () -> assertTrue(scrape.contains("jdbc_repository_seconds_count{"), "jdbc.repository"),
+                () -> assertTrue(scrape.contains("weather_api_requests_seconds_count{endpoint=\"current\""),
+                        "weather.api.requests"),
+                () -> assertTrue(scrape.contains("status=\"error\""), "weather.api.requests status"),
+                () -> assertTrue(scrape.contains("weather_http_pool_leased"), "weather.http.pool.leased"),
+                () -> assertTrue(scrape.contains("weather_http_pool_available"), "weather.http.pool.available"),
+                () -> assertTrue(scrape.contains("weather_http_pool_pending"), "weather.http.pool.pending"),
+                () -> assertTrue(scrape.contains("cache_gets_total{cache=\"dateWeather\""), "dateWeather cache"),
+                () -> assertTrue(scrape.contains("diary_json_cache_requests_total{"), "diary.json.cache.requests"),
+                () -> assertTrue(scrape.contains("diary_json_cache_size_bytes"), "diary.json.cache.size"),
+                () -> assertTrue(scrape.contains("http_server_requests_seconds_count{"), "http.server.requests"));
+    }
+
+    @Test
+    @DisplayName("Actuator 가 있어도 Swagger 문서가 만들어진다")
+    void swaggerWithActuatorTest() throws Exception {
+        String docs = mockMvc.perform(get("/v2/api-docs"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(docs.contains("/read/diary"));
+        assertFalse(docs.contains("/actuator"));
+    }
+}
@@ -0,0 +1,173 @@
+package zb.weather;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import zb.weather.datasource.ReplicaRoutingDataSource;
+import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryVersions;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ReplicaRoutingTest 처럼 두 H2 메모리 DB 를 프라이머리와 복제본으로 두고, 복제본에는 수정이 반영되지 않은 채
+ * 따라잡았다고 보이게 해서 직렬화된 JSON 캐시와 ETag 가 복제본의 이전 데이터를 새 버전으로 내보내지 않는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaDiaryCacheTest.PRIMARY_URL,
+        "datasource.replica.urls=" + ReplicaDiaryCacheTest.REPLICA_URL,
+        "datasource.replica.max-lag=1s",
+        "datasource.replica.health-interval=100ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class ReplicaDiaryCacheTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:json_cache_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:json_cache_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final LocalDate CHANGED = LocalDate.of(2020, 6, 6);
+    private static final LocalDate UNCHANGED = LocalDate.of(2020, 6, 7);
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    JdbcTemplate primary;
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DiaryVersions diaryVersions;
+    @Autowired
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @BeforeEach
+    void setUp() {
+        insertDiary(primary, CHANGED, "before");
+        insertDiary(replica, CHANGED, "before");
+        // 서비스를 거치지 않고 되돌렸으므로 버전을 직접 올린다.
+        diaryVersions.bump(CHANGED);
+        insertDiary(primary, UNCHANGED, "from primary");
+        insertDiary(replica, UNCHANGED, "from replica");
+    }
+
+    @Test
+    @DisplayName("방금 수정한 날짜는 복제본이 따라잡았다고 보여도 프라이머리에서 읽어 새 ETag 로 캐시한다")
+    void recentChangeReadsPrimaryTest() throws Exception {
+        // given
+        String oldEtag = read(CHANGED).getHeader(HttpHeaders.ETAG);
+        diaryService.updateDiary(CHANGED, "after");
+        awaitCaughtUp();
+
+        // when
+        MockHttpServletResponse response = read(CHANGED);
+
+        // then
+        assertTrue(response.getContentAsString().contains("after"), response.getContentAsString());
+        assertEquals(diaryVersions.of(CHANGED).getETag(), response.getHeader(HttpHeaders.ETAG));
+        assertNotEquals(oldEtag, response.getHeader(HttpHeaders.ETAG));
+        // 캐시된 본문도 새 데이터여야 한다.
+        awaitCaughtUp();
+        assertTrue(read(CHANGED).getContentAsString().contains("after"));
+    }
+
+    @Test
+    @DisplayName("이전 ETag 로 조건부 요청하면 새 데이터로 200, 새 ETag 로 다시 요청하면 304")
+    void conditionalGetAfterChangeTest() throws Exception {
+        // given
+        String oldEtag = read(CHANGED).getHeader(HttpHeaders.ETAG);
+        diaryService.updateDiary(CHANGED, "after");
+        awaitCaughtUp();
+
+        // when
+        MockHttpServletResponse changed = mockMvc.perform(get("/read/diary").param("date", CHANGED.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, oldEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertTrue(changed.getContentAsString().contains("after"), changed.getContentAsString());
+        mockMvc.perform(get("/read/diary").param("date", CHANGED.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, changed.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("max-lag 보다 오래전에 바뀐 날짜는 그대로 복제본에서 읽는다")
+    void oldVersionReadsReplicaTest() throws Exception {
+        // given
+        long modifiedAt = diaryVersions.of(UNCHANGED).getLastModified();
+        awaitCondition(() -> !replicaRoutingDataSource.mayLag(modifiedAt));
+        awaitCaughtUp();
+
+        // when
+        String body = read(UNCHANGED).getContentAsString();
+
+        // then
+        assertTrue(body.contains("from replica"), body);
+    }
+
+    private MockHttpServletResponse read(LocalDate date) throws Exception {
+        return mockMvc.perform(get("/read/diary").param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private void insertDiary(JdbcTemplate jdbcTemplate, LocalDate date, String text) {
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(date));
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(date), "Clear", "01d", 280.0, text);
+    }
+
+    /**
+     * 복제본에 프라이머리 heartbeat 를 복사해 지연이 0 으로 보이게 한다. 일기 데이터는 복제하지 않는다.
+     */
+    private void awaitCaughtUp() {
+        awaitCondition(() -> {
+            List<Timestamp> beats = primary.queryForList(
+                    "select beat_at from replica_heartbeat where id = 1", Timestamp.class);
+            if (!beats.isEmpty()) {
+                replica.update("delete from replica_heartbeat");
+                replica.update("insert into replica_heartbeat(id, beat_at) values(1, ?)", beats.get(0));
+            }
+            return replicaRoutingDataSource.getReplicas().get(0).getLagMillis() == 0;
+        });
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package zb.weather;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import zb.weather.datasource.ReplicaRoutingDataSource;
+import zb.weather.domain.Diary;
+import zb.weather.dto.BulkCreateResult;
+import zb.weather.dto.DiaryRequest;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.service.DiaryService;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 서로 다른 두 개의 H2 메모리 DB 를 프라이머리와 복제본으로 두고, 같은 날짜에 다른 내용을 넣어
+ * 읽기 전용 조회가 어디로 갔는지 구분한다. 복제는 일어나지 않으므로 복제본의 heartbeat 는 테스트가 직접 쓴다.
+ * 따라잡은 복제본은 프라이머리의 heartbeat 를 그대로 복사해 흉내 낸다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "datasource.replica.max-lag=2s",
+        "datasource.replica.health-interval=100ms"
+})
+@ActiveProfiles("h2")
+public class ReplicaRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final LocalDate DATE = LocalDate.of(2020, 5, 5);
+    private static final LocalDate BULK_DATE = LocalDate.of(2020, 5, 6);
+    private static final LocalDate RETRY_DATE = LocalDate.of(2020, 5, 7);
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    JdbcTemplate primary;
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    DiarySearchIndex diarySearchIndex;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @BeforeEach
+    void setUp() {
+        insertDiary(primary, "from primary");
+        insertDiary(replica, "from replica");
+    }
+
+    @Test
+    @DisplayName("읽기 전용 조회는 따라잡은 복제본으로 가고, 따라잡은 복제본의 지연에는 검사 간격이 섞이지 않는다")
+    void readOnlyGoesToReplicaTest() {
+        // given
+        awaitReplica(() -> {
+            copyPrimaryHeartbeat();
+            return replicaLag() == 0;
+        });
+
+        // when
+        List<Diary> diaries = diaryService.readDiary(DATE);
+
+        // then
+        assertEquals(1, diaries.size());
+        assertEquals("from replica", diaries.get(0).getText());
+    }
+
+    @Test
+    @DisplayName("지연이 max-lag 를 넘은 복제본은 빼고 프라이머리에서 읽는다")
+    void laggingReplicaFallsBackToPrimaryTest() {
+        // given
+        writeReplicaHeartbeat(System.currentTimeMillis() - 60_000);
+        awaitReplica(() -> replicaLag() > 2000);
+
+        // when
+        List<Diary> diaries = diaryService.readDiary(DATE);
+
+        // then
+        assertEquals(1, diaries.size());
+        assertEquals("from primary", diaries.get(0).getText());
+    }
+
+    @Test
+    @DisplayName("일괄 생성한 일기는 복제본에 아직 없어도 프라이머리에서 읽어 바로 색인한다")
+    void bulkCreateIndexesFromPrimaryTest() {
+        // given
+        for (JdbcTemplate jdbcTemplate : new JdbcTemplate[]{primary, replica}) {
+            jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(BULK_DATE));
+            jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(BULK_DATE));
+            jdbcTemplate.update("insert into date_weather(date, weather, icon, temperature) values(?,?,?,?)",
+                    Date.valueOf(BULK_DATE), "Clear", "01d", 280.0);
+        }
+        awaitReplica(() -> {
+            copyPrimaryHeartbeat();
+            return replicaLag() == 0;
+        });
+
+        // when
+        BulkCreateResult result = diaryService.createDiaries(
+                Collections.singletonList(new DiaryRequest(BULK_DATE, "복제본에는 없는 일기")));
+
+        // then
+        assertEquals(1, result.getCreated());
+        assertEquals(0, replica.queryForObject("select count(*) from diary where date = ?", Integer.class,
+                Date.valueOf(BULK_DATE)));
+        assertEquals(1, diarySearchIndex.search("복제본", BULK_DATE, BULK_DATE, null).size());
+    }
+
+    @Test
+    @DisplayName("같은 요청 키로 다시 보낸 일기는 복제본에 아직 없어도 프라이머리에서 확인해 이미 생성됨으로 돌려준다")
+    void retriedRequestCheckedOnPrimaryTest() {
+        // given
+        for (JdbcTemplate jdbcTemplate : new JdbcTemplate[]{primary, replica}) {
+            jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(RETRY_DATE));
+            jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(RETRY_DATE));
+            jdbcTemplate.update("insert into date_weather(date, weather, icon, temperature) values(?,?,?,?)",
+                    Date.valueOf(RETRY_DATE), "Clear", "01d", 280.0);
+        }
+        awaitReplica(() -> {
+            copyPrimaryHeartbeat();
+            return replicaLag() == 0;
+        });
+        assertTrue(diaryService.createDiary(RETRY_DATE, "재전송", "retry-on-primary"));
+
+        // when
+        boolean created = diaryService.createDiary(RETRY_DATE, "재전송", "retry-on-primary");
+
+        // then
+        assertFalse(created);
+        assertEquals(0, replica.queryForObject("select count(*) from diary where date = ?", Integer.class,
+                Date.valueOf(RETRY_DATE)));
+        assertEquals(1, primary.queryForObject("select count(*) from diary where date = ?", Integer.class,
+                Date.valueOf(RETRY_DATE)));
+    }
+
+    private void insertDiary(JdbcTemplate jdbcTemplate, String text) {
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text) values(?,?,?,?,?)",
+                Date.valueOf(DATE), "Clear", "01d", 280.0, text);
+    }
+
+    private void writeReplicaHeartbeat(long beatAt) {
+        replica.update("delete from replica_heartbeat");
+        replica.update("insert into replica_heartbeat(id, beat_at) values(1, ?)", new Timestamp(beatAt));
+    }
+
+    private void copyPrimaryHeartbeat() {
+        List<Timestamp> beats = primary.queryForList(
+                "select beat_at from replica_heartbeat where id = 1", Timestamp.class);
+        if (!beats.isEmpty()) {
+            writeReplicaHeartbeat(beats.get(0).getTime());
+        }
+    }
+
+    private long replicaLag() {
+        return replicaRoutingDataSource.getReplicas().get(0).getLagMillis();
+    }
+
+    private static void awaitReplica(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "replica state did not change in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package zb.weather;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import zb.weather.cluster.CacheInvalidation;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Location;
+import zb.weather.repository.DiaryRepository;
+import zb.weather.repository.DiaryRollupRepository;
+import zb.weather.repository.JdbcDateWeatherRepository;
+import zb.weather.search.DiarySearchIndex;
+import zb.weather.service.DateWeatherCache;
+import zb.weather.service.DiaryService;
+import zb.weather.service.DiaryVersions;
+import zb.weather.service.StaleWeatherRefresher;
+import zb.weather.service.WeatherApiClient;
+import zb.weather.service.WeatherSeries;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "weather.circuit.open-duration=50ms",
+        "weather.stale.max-backoff=200ms",
+        "weather.stale.max-attempts=20"
+})
+@ActiveProfiles("h2")
+public class StaleWeatherRefreshTest {
+    private static final LocalDate DATE = LocalDate.of(2017, 6, 15);
+    private static final int OTHER_LOCATION = 99;
+    private static final String HISTORICAL_RAIN = "{\"data\":[{\"dt\":1497484800,\"temp\":290.5,"
+            + "\"weather\":[{\"main\":\"Rain\",\"icon\":\"10d\"}]}]}";
+
+    @Autowired
+    DiaryService diaryService;
+    @Autowired
+    DateWeatherCache dateWeatherCache;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @MockBean
+    WeatherApiClient weatherApiClient;
+    @SpyBean
+    DiaryRollupRepository diaryRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from diary where date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("delete from diary_rollup where date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(DATE));
+        dateWeatherCache.evict(DATE);
+    }
+
+    @Test
+    @DisplayName("API 장애 중에는 가장 최근 날씨를 stale 로 쓰고, 갱신되면 date_weather 와 일기, 집계를 바로잡는다")
+    void staleFallbackThenRefreshTest() {
+        // given
+        DateWeather latest = new DateWeather();
+        latest.setDate(LocalDate.now());
+        latest.setWeather("Snow");
+        latest.setIcon("13d");
+        latest.setTemperature(270.0);
+        dateWeatherCache.put(latest);
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(null);
+
+        // when
+        assertTrue(diaryService.createDiary(DATE, "우산을 챙겼다", null));
+
+        // then
+        DateWeather served = dateWeatherCache.getIfPresent(DATE);
+        assertNotNull(served);
+        assertTrue(served.isStale());
+        assertEquals("Snow", served.getWeather());
+        assertEquals("Snow", diaryWeather());
+        // 다른 위치의 일기는 그 위치의 날씨를 가지므로 바로잡지 않아야 한다.
+        jdbcTemplate.update("insert into diary(date, weather, icon, temperature, text, location_id)"
+                + " values(?,?,?,?,?,?)", Date.valueOf(DATE), "Fog", "50d", 285.0, "다른 도시", OTHER_LOCATION);
+
+        // when
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(HISTORICAL_RAIN);
+
+        // then
+        await(() -> "Rain".equals(diaryWeather()));
+        assertEquals("Fog", jdbcTemplate.queryForObject(
+                "select weather from diary where date = ? and location_id = ?", String.class,
+                Date.valueOf(DATE), OTHER_LOCATION));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select diary_count from diary_rollup where date = ? and weather = 'Fog'", Integer.class,
+                Date.valueOf(DATE)));
+        assertEquals("Rain", jdbcTemplate.queryForObject(
+                "select weather from date_weather where date = ?", String.class, Date.valueOf(DATE)));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select diary_count from diary_rollup where date = ? and weather = 'Rain'", Integer.class,
+                Date.valueOf(DATE)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from diary_rollup where date = ? and weather = 'Snow'", Integer.class,
+                Date.valueOf(DATE)));
+        assertFalse(dateWeatherCache.getIfPresent(DATE).isStale());
+        assertEquals("Snow", dateWeatherCache.getLatest().getWeather());
+    }
+
+    @Test
+    @DisplayName("집계를 고치다 실패하면 일기 날씨도 되돌리고 다음 시도에서 함께 고친다")
+    void diaryAndRollupCorrectedTogetherTest() {
+        // given
+        DateWeather latest = new DateWeather();
+        latest.setDate(LocalDate.now());
+        latest.setWeather("Snow");
+        latest.setIcon("13d");
+        latest.setTemperature(270.0);
+        dateWeatherCache.put(latest);
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(null);
+        assertTrue(diaryService.createDiary(DATE, "우산을 챙겼다", null));
+        AtomicInteger failures = new AtomicInteger();
+        doAnswer(invocation -> {
+            failures.incrementAndGet();
+            throw new IllegalStateException("rollup failed");
+        }).when(diaryRollupRepository).refreshDate(DATE);
+
+        // when
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(HISTORICAL_RAIN);
+
+        // then
+        await(() -> failures.get() >= 2);
+        assertEquals("Snow", diaryWeather());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select diary_count from diary_rollup where date = ? and weather = 'Snow'", Integer.class,
+                Date.valueOf(DATE)));
+
+        // when
+        doCallRealMethod().when(diaryRollupRepository).refreshDate(DATE);
+
+        // then
+        await(() -> "Rain".equals(diaryWeather()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select diary_count from diary_rollup where date = ? and weather = 'Rain'", Integer.class,
+                Date.valueOf(DATE)));
+    }
+
+    @Test
+    @DisplayName("갱신하는 사이 다른 수집이 date_weather 를 먼저 저장했으면 그 행으로 캐시와 일기를 바로잡는다")
+    void existingRowWinsTest() {
+        // given
+        DateWeather latest = new DateWeather();
+        latest.setDate(LocalDate.now());
+        latest.setWeather("Snow");
+        latest.setIcon("13d");
+        latest.setTemperature(270.0);
+        dateWeatherCache.put(latest);
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(null);
+        assertTrue(diaryService.createDiary(DATE, "우산을 챙겼다", null));
+        jdbcTemplate.update("insert into date_weather(location_id, date, weather, icon, temperature)"
+                + " values(?,?,?,?,?)", Location.DEFAULT_ID, Date.valueOf(DATE), "Clouds", "03d", 288.0);
+
+        // when
+        when(weatherApiClient.getHistoricalWeatherData(DATE)).thenReturn(HISTORICAL_RAIN);
+
+        // then
+        await(() -> "Clouds".equals(diaryWeather()));
+        assertEquals("Clouds", dateWeatherCache.getIfPresent(DATE).getWeather());
+        assertEquals("Clouds", jdbcTemplate.queryForObject(
+                "select weather from date_weather where date = ?", String.class, Date.valueOf(DATE)));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select diary_count from diary_rollup where date = ? and weather = 'Clouds'", Integer.class,
+                Date.valueOf(DATE)));
+    }
+
+    @Test
+    @DisplayName("max-attempts 번 실패하면 포기하고, 다음 stale 응답 때 다시 갱신을 시작한다")
+    void givesUpAfterMaxAttemptsTest() {
+        // given
+        StaleWeatherRefresher refresher = new StaleWeatherRefresher(dateWeatherCache,
+                mock(JdbcDateWeatherRepository.class), mock(WeatherSeries.class), mock(CacheInvalidation.class),
+                mock(DiaryRepository.class), mock(DiaryRollupRepository.class), mock(DiaryVersions.class),
+                mock(DiarySearchIndex.class), mock(PlatformTransactionManager.class),
+                Duration.ofMillis(10), Duration.ofMillis(40), 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            // when
+            refresher.refresh(DATE, date -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("still down");
+            });
+            refresher.refresh(DATE, date -> {
+                throw new AssertionError("only one refresh per date may run");
+            });
+
+            // then
+            await(() -> attempts.get() == 3);
+            sleep(200);
+            assertEquals(3, attempts.get());
+
+            refresher.refresh(DATE, date -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("still down");
+            });
+            await(() -> attempts.get() == 6);
+        } finally {
+            refresher.destroy();
+        }
+    }
+
+    private String diaryWeather() {
+        return jdbcTemplate.queryForObject("select weather from diary where date = ? and location_id = ?",
+                String.class, Date.valueOf(DATE), Location.DEFAULT_ID);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package zb.weather;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zb.weather.backfill.BackfillJob;
+import zb.weather.backfill.WeatherBackfillService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class WeatherBackfillTest {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherBackfillTest.class);
+    private static final int RATE_PER_SECOND = 20;
+    private static final int BURST = 5;
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 1, 31);
+
+    private static HttpServer server;
+    private static final AtomicInteger calls = new AtomicInteger();
+    private static final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+    // 이 날짜를 조회하는 순간 다른 경로가 먼저 저장한 것처럼 행을 넣는다.
+    private static volatile LocalDate savedElsewhere;
+    private static JdbcTemplate stubJdbcTemplate;
+
+    @Autowired
+    WeatherBackfillService weatherBackfillService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void stubApiProperties(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+        server.createContext("/timemachine", exchange -> {
+            calls.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            String dt = query.substring(query.indexOf("dt=") + 3);
+            // 다섯 번째 날짜마다 첫 요청은 503 으로 실패시켜 재시도를 확인한다.
+            if (Long.parseLong(dt) / 86400 % 5 == 0 && failedOnce.add(dt)) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            if (savedElsewhere != null && Long.parseLong(dt) / 86400 == savedElsewhere.toEpochDay()) {
+                stubJdbcTemplate.update("insert into date_weather(date, weather, icon, temperature) values(?,?,?,?)",
+                        Date.valueOf(savedElsewhere), "Clear", "01d", 270.0);
+            }
+            byte[] body = ("{\"lat\":37.57,\"lon\":126.98,\"data\":[{\"dt\":" + dt + ",\"temp\":271.5,"
+                    + "\"weather\":[{\"id\":600,\"main\":\"Snow\",\"icon\":\"13d\"}]}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        registry.add("openweathermap.history-url",
+                () -> "http://127.0.0.1:" + server.getAddress().getPort() + "/timemachine?appid=");
+        registry.add("weather.backfill.rate-per-minute", () -> RATE_PER_SECOND * 60);
+        registry.add("weather.backfill.burst", () -> BURST);
+        registry.add("weather.backfill.initial-backoff", () -> "10ms");
+        registry.add("weather.backfill.batch-size", () -> 8);
+    }
+
+    @AfterAll
+    static void stopStubServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from date_weather where date between ? and ?",
+                Date.valueOf(START), Date.valueOf(END));
+        for (int day = 1; day <= 31; day += 7) {
+            jdbcTemplate.update("insert into date_weather(date, weather, icon, temperature) values(?,?,?,?)",
+                    Date.valueOf(START.withDayOfMonth(day)), "Clear", "01d", 270.0);
+        }
+        calls.set(0);
+        failedOnce.clear();
+        savedElsewhere = null;
+        stubJdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    @DisplayName("빠진 날짜만 속도 제한을 지키며 채우고 실패한 요청은 재시도")
+    void backfillMissingDatesTest() throws Exception {
+        // when
+        BackfillJob job = weatherBackfillService.start(START, END);
+        awaitFinished(job);
+
+        // then
+        assertEquals(BackfillJob.Status.COMPLETED, job.getStatus());
+        assertEquals(26, job.getMissing());
+        assertEquals(26, job.getSaved().get());
+        assertEquals(0, job.getFailed().get());
+        assertTrue(job.getRetries().get() > 0);
+        assertEquals(31, jdbcTemplate.queryForObject(
+                "select count(*) from date_weather where date between ? and ?", Integer.class,
+                Date.valueOf(START), Date.valueOf(END)));
+
+        long minimumMillis = (calls.get() - BURST) * 1000L / RATE_PER_SECOND;
+        logger.info("missing={} calls={} retries={} elapsed={}ms (rate limit floor {}ms)",
+                job.getMissing(), calls.get(), job.getRetries().get(), job.getElapsedMillis(), minimumMillis);
+        assertTrue(job.getElapsedMillis() >= minimumMillis * 0.9);
+    }
+
+    @Test
+    @DisplayName("이미 있는 날짜는 저장 수에 넣지 않는다")
+    void savedCountsOnlyInsertedRowsTest() throws Exception {
+        // given
+        jdbcTemplate.update("delete from date_weather where date between ? and ?",
+                Date.valueOf(START), Date.valueOf(END));
+        savedElsewhere = START.plusDays(1);
+
+        // when
+        BackfillJob job = weatherBackfillService.start(START, START.plusDays(3));
+        awaitFinished(job);
+
+        // then
+        assertEquals(BackfillJob.Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getMissing());
+        assertEquals(4, job.getFetched().get());
+        assertEquals(3, job.getSaved().get());
+        assertEquals("Clear", jdbcTemplate.queryForObject(
+                "select weather from date_weather where date = ?", String.class, Date.valueOf(START.plusDays(1))));
+    }
+
+    private static void awaitFinished(BackfillJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15000;
+        while (job.getStatus() == BackfillJob.Status.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "backfill did not finish within 15s");
+            Thread.sleep(50);
+        }
+    }
+}
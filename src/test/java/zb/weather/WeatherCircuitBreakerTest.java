@@ -0,0 +1,50 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zb.weather.service.WeatherCircuitBreaker;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeatherCircuitBreakerTest {
+
+    @Test
+    @DisplayName("연속 실패가 임계치에 도달하면 서킷이 열리고 호출을 거절")
+    void opensAfterConsecutiveFailuresTest() {
+        // given
+        WeatherCircuitBreaker breaker = new WeatherCircuitBreaker(3, Duration.ofMinutes(1));
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        // then
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("open-duration 이 지나면 한 번의 시험 호출만 허용하고 성공하면 닫힘")
+    void halfOpenTrialTest() throws Exception {
+        // given
+        WeatherCircuitBreaker breaker = new WeatherCircuitBreaker(1, Duration.ofMillis(50));
+        breaker.tryAcquire();
+        breaker.onFailure();
+        Thread.sleep(100);
+
+        // when
+        boolean trial = breaker.tryAcquire();
+        boolean second = breaker.tryAcquire();
+        breaker.onSuccess();
+
+        // then
+        assertTrue(trial);
+        assertFalse(second);
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+}
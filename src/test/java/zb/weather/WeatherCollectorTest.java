@@ -0,0 +1,160 @@
+package zb.weather;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import zb.weather.collector.WeatherCollector;
+import zb.weather.domain.Location;
+import zb.weather.dto.WeatherCollectResult;
+import zb.weather.repository.LocationRepository;
+import zb.weather.service.WeatherCircuitBreaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class WeatherCollectorTest {
+    private static final LocalDate DATE = LocalDate.of(2023, 3, 1);
+
+    private static HttpServer server;
+
+    @Autowired
+    WeatherCollector weatherCollector;
+    @Autowired
+    LocationRepository locationRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    WeatherCircuitBreaker weatherCircuitBreaker;
+
+    @DynamicPropertySource
+    static void stubApiProperties(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+        server.createContext("/weather", exchange -> {
+            // 위도를 기온으로 돌려주어 위치별로 다른 값이 저장됐는지 확인한다.
+            String query = exchange.getRequestURI().getQuery();
+            String lat = query.substring(query.indexOf("lat=") + 4, query.indexOf('&'));
+            if (lat.startsWith("9")) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}],\"main\":{\"temp\":" + lat + "}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        registry.add("openweathermap.location-url",
+                () -> "http://127.0.0.1:" + server.getAddress().getPort() + "/weather?lat={lat}&lon={lon}&appid=");
+        registry.add("weather.collector.batch-size", () -> 3);
+        registry.add("weather.circuit.open-duration", () -> "50ms");
+    }
+
+    @AfterAll
+    static void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("맡은 조각의 위치만 병렬로 모아 (위치, 날짜) 로 저장")
+    void collectShardTest() {
+        // given
+        for (int i = 0; i < 10; i++) {
+            String name = "collector-city-" + i;
+            if (locationRepository.findAll().stream().noneMatch(l -> l.getName().equals(name))) {
+                Location location = new Location();
+                location.setName(name);
+                location.setLat(200 + i);
+                location.setLon(0);
+                locationRepository.save(location);
+            }
+        }
+        jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(DATE));
+        List<Location> shard = locationRepository.findShard(2, 1);
+
+        // when
+        WeatherCollectResult result = weatherCollector.collect(shard, DATE, 4);
+
+        // then
+        assertFalse(shard.isEmpty());
+        assertTrue(shard.stream().allMatch(l -> l.getId() % 2 == 1));
+        assertEquals(shard.size(), result.getFetched());
+        assertEquals(0, result.getFailed());
+        assertEquals(shard.size(), result.getSaved());
+        for (Location location : shard) {
+            assertEquals(location.getLat(), jdbcTemplate.queryForObject(
+                    "select temperature from date_weather where location_id = ? and date = ?", Double.class,
+                    location.getId(), Date.valueOf(DATE)), 0.001);
+        }
+        assertEquals(shard.size(), jdbcTemplate.queryForObject(
+                "select count(*) from date_weather where date = ?", Integer.class, Date.valueOf(DATE)));
+    }
+
+    @Test
+    @DisplayName("수집 실패가 몰려도 일기 생성이 쓰는 서킷 브레이커는 열리지 않는다")
+    void collectorFailuresDoNotOpenSharedCircuitTest() {
+        // given
+        List<Location> failing = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Location location = new Location();
+            location.setName("failing-city-" + i);
+            location.setLat(900 + i);
+            location.setLon(0);
+            failing.add(location);
+        }
+
+        // when
+        WeatherCollectResult result = weatherCollector.collect(failing, DATE, 2);
+
+        // then
+        assertEquals(failing.size(), result.getFailed());
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, weatherCircuitBreaker.getState());
+
+        // 수집기 서킷은 open-duration 뒤 시험 호출이 성공하면 다시 닫힌다.
+        Location recovery = locationRepository.findAll().stream()
+                .filter(l -> l.getName().equals("collector-recovery"))
+                .findFirst()
+                .orElseGet(() -> {
+                    Location location = new Location();
+                    location.setName("collector-recovery");
+                    location.setLat(300);
+                    location.setLon(0);
+                    return locationRepository.save(location);
+                });
+        jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(DATE));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (weatherCollector.collect(Collections.singletonList(recovery), DATE, 1).getFetched() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "collector circuit did not close");
+            sleep(50);
+        }
+        jdbcTemplate.update("delete from date_weather where date = ?", Date.valueOf(DATE));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zb.weather.domain.DateWeather;
+import zb.weather.service.WeatherResponseParser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeatherResponseParserTest {
+    private final WeatherResponseParser parser = new WeatherResponseParser();
+
+    @Test
+    @DisplayName("필요한 필드만 읽어 DateWeather 생성")
+    void parseTest() {
+        // given
+        String json = "{\"coord\":{\"lon\":126.97,\"lat\":37.56},"
+                + "\"weather\":[{\"id\":500,\"main\":\"Rain\",\"icon\":\"10d\"},{\"main\":\"Mist\",\"icon\":\"50d\"}],"
+                + "\"main\":{\"feels_like\":{\"nested\":[1,2]},\"temp\":281.15},\"name\":\"Seoul\"}";
+
+        // when
+        DateWeather dateWeather = parser.parse(json);
+
+        // then
+        assertNotNull(dateWeather);
+        assertEquals("Rain", dateWeather.getWeather());
+        assertEquals("10d", dateWeather.getIcon());
+        assertEquals(281.15, dateWeather.getTemperature());
+    }
+
+    @Test
+    @DisplayName("정수 temp 도 파싱")
+    void integerTemperatureTest() {
+        // when
+        DateWeather dateWeather = parser.parse("{\"main\":{\"temp\":281},\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}");
+
+        // then
+        assertNotNull(dateWeather);
+        assertEquals(281.0, dateWeather.getTemperature());
+    }
+
+    @Test
+    @DisplayName("필드가 없거나 빈 응답이면 null")
+    void missingFieldsTest() {
+        assertNull(parser.parse(null));
+        assertNull(parser.parse(""));
+        assertNull(parser.parse("{\"main\":{\"temp\":281}}"));
+        assertNull(parser.parse("{\"main\":{\"temp\":281},\"weather\":[]}"));
+    }
+
+    @Test
+    @DisplayName("weather[0] 의 main, icon 이 객체나 배열이면 건너뛰고 나머지를 계속 읽는다")
+    void nonScalarWeatherFieldsTest() {
+        // given
+        String json = "{\"weather\":[{\"icon\":{\"day\":\"01d\"},\"main\":\"Clear\",\"id\":800}],"
+                + "\"main\":{\"temp\":281.15}}";
+        String objectMain = "{\"weather\":[{\"main\":[\"Clear\"],\"icon\":\"01d\"}],\"main\":{\"temp\":281.15}}";
+
+        // when
+        DateWeather dateWeather = parser.parse(json);
+
+        // then
+        assertNotNull(dateWeather);
+        assertEquals("Clear", dateWeather.getWeather());
+        assertNull(dateWeather.getIcon());
+        assertEquals(281.15, dateWeather.getTemperature());
+        assertNull(parser.parse(objectMain));
+    }
+}
@@ -0,0 +1,97 @@
+package zb.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import zb.weather.domain.DateWeather;
+import zb.weather.domain.Location;
+import zb.weather.dto.WeatherStats;
+import zb.weather.repository.DateWeatherRepository;
+import zb.weather.service.WeatherSeries;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WeatherSeriesTest {
+
+    @Test
+    @DisplayName("기동 시 불러온 날씨와 이후 저장한 날씨로 기간 통계를 계산")
+    void rangeStatsTest() {
+        // given
+        DateWeatherRepository repository = mock(DateWeatherRepository.class);
+        when(repository.findAllByLocationId(Location.DEFAULT_ID)).thenReturn(Arrays.asList(
+                dateWeather(LocalDate.of(2024, 1, 10), "Clear", 280.15),
+                dateWeather(LocalDate.of(2024, 1, 5), "Rain", 275.5)));
+        WeatherSeries series = new WeatherSeries(repository, 50);
+        series.rebuild();
+
+        // when
+        series.put(dateWeather(LocalDate.of(2023, 12, 31), "Snow", 268.0));
+        series.put(dateWeather(LocalDate.of(2024, 2, 1), "Clear", 281.0));
+        WeatherStats january = series.stats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        WeatherStats all = series.stats(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1));
+        WeatherStats empty = series.stats(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31));
+
+        // then
+        assertEquals(2, january.getDays());
+        assertEquals(275.5, january.getMinTemperature());
+        assertEquals(280.15, january.getMaxTemperature());
+        assertEquals(277.83, january.getAvgTemperature(), 0.01);
+        assertEquals(1, january.getConditions().get("Rain").intValue());
+
+        assertEquals(4, all.getDays());
+        assertEquals(268.0, all.getMinTemperature());
+        assertEquals(2, all.getConditions().get("Clear").intValue());
+        assertEquals(1, all.getConditions().get("Snow").intValue());
+
+        assertEquals(0, empty.getDays());
+        assertNull(empty.getAvgTemperature());
+        assertTrue(empty.getConditions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("색인 범위 밖의 날씨는 배열에 넣지 않고 통계를 낼 때 DB 에서 읽는다")
+    void outsideRangeTest() {
+        // given
+        DateWeatherRepository repository = mock(DateWeatherRepository.class);
+        LocalDate today = LocalDate.now();
+        LocalDate farFuture = LocalDate.of(9999, 12, 31);
+        LocalDate farPast = LocalDate.of(1, 1, 1);
+        when(repository.findAllByLocationIdAndDateBetween(Location.DEFAULT_ID, today.plusDays(2), farFuture))
+                .thenReturn(Collections.singletonList(dateWeather(farFuture, "Snow", 260.0)));
+        WeatherSeries series = new WeatherSeries(repository, 50);
+        series.rebuild();
+
+        // when
+        series.put(dateWeather(today, "Clear", 280.0));
+        series.put(dateWeather(farFuture, "Rain", 290.0));
+        series.put(dateWeather(farPast, "Rain", 290.0));
+        WeatherStats indexed = series.stats(today.minusYears(50), today.plusDays(1));
+        WeatherStats all = series.stats(farPast, farFuture);
+
+        // then
+        assertEquals(1, indexed.getDays());
+        assertEquals(1, indexed.getConditions().get("Clear").intValue());
+        assertFalse(indexed.getConditions().containsKey("Rain"));
+        verify(repository, never()).findAllByLocationIdAndDateBetween(anyInt(), any(), any());
+
+        assertEquals(2, all.getDays());
+        assertEquals(260.0, all.getMinTemperature());
+        assertEquals(1, all.getConditions().get("Snow").intValue());
+        assertFalse(all.getConditions().containsKey("Rain"));
+        verify(repository).findAllByLocationIdAndDateBetween(Location.DEFAULT_ID, farPast,
+                today.minusYears(50).minusDays(1));
+    }
+
+    private static DateWeather dateWeather(LocalDate date, String weather, double temperature) {
+        DateWeather dateWeather = new DateWeather();
+        dateWeather.setDate(date);
+        dateWeather.setWeather(weather);
+        dateWeather.setIcon("01d");
+        dateWeather.setTemperature(temperature);
+        return dateWeather;
+    }
+}